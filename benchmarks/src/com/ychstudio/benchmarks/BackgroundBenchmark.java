@@ -0,0 +1,59 @@
+package com.ychstudio.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.math.Vector2;
+import com.ychstudio.background.BackgroundScroll;
+
+/**
+ * Cost of the background scrolling done every frame by Background.update.
+ * Scrolling is measured through BackgroundScroll, since Background itself needs a GL context.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BackgroundBenchmark {
+    
+    /** How far the player moves between two updates. */
+    @Param({"0.3", "1000"})
+    public float playerStep;
+    
+    private BackgroundScroll scroll;
+    private Vector2 playerPos;
+    
+    @Setup
+    public void setup() {
+        scroll = new BackgroundScroll(30f * 2.5f);
+        playerPos = new Vector2(10f, 0f);
+    }
+    
+    @Benchmark
+    public float update() {
+        playerPos.y += playerStep;
+        if (playerPos.y > 1000f) {
+            playerPos.y = 0f;
+        }
+        scroll.update(playerPos);
+        return scroll.getOffsetY();
+    }
+    
+    @Benchmark
+    public float getOffset() {
+        return BackgroundScroll.getOffset(-playerStep, 0f, 75f);
+    }
+}
@@ -0,0 +1,54 @@
+package com.ychstudio.benchmarks;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.physics.box2d.Box2D;
+import com.ychstudio.gamesys.GameSimulation;
+
+/**
+ * Starts the headless backend once per forked JVM and builds simulations for the benchmarks.
+ */
+public class BenchmarkSupport {
+    
+    /** Large enough to keep every chunk of the level active. */
+    public static final float WHOLE_LEVEL = 10000f;
+    
+    private static boolean initialized = false;
+    
+    public static synchronized void init() {
+        if (initialized) {
+            return;
+        }
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = -1;
+        new HeadlessApplication(new ApplicationAdapter() {}, config);
+        Box2D.init();
+        initialized = true;
+    }
+    
+    /**
+     * @param wholeLevel true to simulate every asteroid of the level, false to only simulate the chunks near the player
+     */
+    public static GameSimulation createSimulation(boolean wholeLevel) {
+        return createSimulation(wholeLevel, false);
+    }
+    
+    /**
+     * @param analyticAsteroids true to simulate the asteroids without Box2D bodies
+     */
+    public static GameSimulation createSimulation(boolean wholeLevel, boolean analyticAsteroids) {
+        init();
+        GameSimulation simulation = new GameSimulation(null);
+        if (wholeLevel) {
+            simulation.setChunkActivationDistance(WHOLE_LEVEL);
+        }
+        if (wholeLevel || analyticAsteroids) {
+            simulation.setAnalyticAsteroids(analyticAsteroids);
+            simulation.restart();
+        }
+        Gdx.app.log("BenchmarkSupport", simulation.getAsteroids().getSize() + " asteroids active");
+        return simulation;
+    }
+}
@@ -0,0 +1,122 @@
+package com.ychstudio.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.Contact;
+import com.badlogic.gdx.physics.box2d.ContactListener;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.ychstudio.actors.Player;
+import com.ychstudio.gamesys.AsteroidField;
+import com.ychstudio.gamesys.ContactDispatcher;
+import com.ychstudio.gamesys.ContactEventQueue;
+import com.ychstudio.gamesys.GameSimulation;
+import com.ychstudio.gamesys.WorldContactListener;
+
+/**
+ * Cost of recording contacts in WorldContactListener.beginContact and dispatching them after the step,
+ * when many asteroids touch the player at once.
+ * The asteroids are piled onto the player, and the touching contacts of one step are recorded again on every call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ContactDispatchBenchmark {
+    
+    @Param({"16", "64"})
+    public int asteroids;
+    
+    private static final ContactDispatcher NO_HANDLERS = new ContactDispatcher();
+    
+    private GameSimulation simulation;
+    private ContactListener listener;
+    private ContactEventQueue queue;
+    private ContactDispatcher dispatcher;
+    private Array<Contact> contacts;
+    
+    @Setup
+    public void setup() {
+        simulation = BenchmarkSupport.createSimulation(true);
+        World world = simulation.getWorld();
+        
+        Vector2 center = new Vector2(10f, 100f);
+        Body playerBody = findBodies(world, false).first();
+        playerBody.setTransform(center, 0);
+        playerBody.setLinearVelocity(0, 0);
+        
+        Array<Body> asteroidBodies = findBodies(world, true);
+        for (int i = 0; i < asteroids && i < asteroidBodies.size; i++) {
+            asteroidBodies.get(i).setTransform(center.x + MathUtils.random(-0.4f, 0.4f), center.y + MathUtils.random(-0.4f, 0.4f), 0);
+        }
+        world.step(GameSimulation.TIME_STEP, 8, 3);
+        
+        contacts = new Array<>();
+        for (Contact contact : world.getContactList()) {
+            if (contact.isTouching()) {
+                contacts.add(contact);
+            }
+        }
+        queue = new ContactEventQueue(64);
+        listener = new WorldContactListener(queue);
+        dispatcher = simulation.getContactDispatcher();
+        Gdx.app.log("ContactDispatchBenchmark", contacts.size + " touching contacts");
+    }
+    
+    private static Array<Body> findBodies(World world, boolean asteroid) {
+        Array<Body> bodies = new Array<>();
+        world.getBodies(bodies);
+        Array<Body> found = new Array<>();
+        for (Body body : bodies) {
+            Object userData = body.getUserData();
+            if (asteroid ? userData instanceof AsteroidField.BodyData : userData instanceof Player) {
+                found.add(body);
+            }
+        }
+        return found;
+    }
+    
+    @TearDown
+    public void tearDown() {
+        simulation.dispose();
+    }
+    
+    @Benchmark
+    public int beginContact() {
+        for (int i = 0; i < contacts.size; i++) {
+            listener.beginContact(contacts.get(i));
+        }
+        // only the recording is measured
+        int size = queue.getSize();
+        queue.dispatch(NO_HANDLERS);
+        return size;
+    }
+    
+    @Benchmark
+    public int beginContactAndDispatch() {
+        for (int i = 0; i < contacts.size; i++) {
+            listener.beginContact(contacts.get(i));
+        }
+        queue.dispatch(dispatcher);
+        return dispatcher.getDispatched();
+    }
+}
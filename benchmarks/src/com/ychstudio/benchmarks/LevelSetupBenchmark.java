@@ -0,0 +1,87 @@
+package com.ychstudio.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.physics.box2d.Body;
+import com.ychstudio.gamesys.ActorBuilder;
+import com.ychstudio.gamesys.AsteroidField;
+import com.ychstudio.gamesys.GameSimulation;
+import com.ychstudio.gamesys.LevelLayout;
+
+/**
+ * Cost of building asteroids, with and without the asteroid pool, and of rebuilding the whole level.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LevelSetupBenchmark {
+    
+    private static final int BATCH = 100;
+    
+    private GameSimulation simulation;
+    
+    @Setup
+    public void setup() {
+        simulation = BenchmarkSupport.createSimulation(true);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        simulation.dispose();
+    }
+    
+    /**
+     * Box2D keeps every new proxy in a move buffer until the next step, and removing a proxy scans that buffer.
+     * Stepping between batches keeps the buffer as small as it is during play.
+     */
+    @Setup(Level.Invocation)
+    public void flushBroadphase() {
+        simulation.getWorld().step(GameSimulation.TIME_STEP, 8, 3);
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int createAsteroidPooled() {
+        AsteroidField asteroids = simulation.getAsteroids();
+        int slot = 0;
+        for (int i = 0; i < BATCH; i++) {
+            slot = asteroids.add(0, 10f, 500f, LevelLayout.RED, 4, 0.2f);
+            asteroids.remove(slot);
+        }
+        return slot;
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Body createAsteroidNewBody() {
+        Body body = null;
+        for (int i = 0; i < BATCH; i++) {
+            body = ActorBuilder.createAsteroidBody(10f, 500f, 2f, 0.2f);
+            simulation.getWorld().destroyBody(body);
+        }
+        return body;
+    }
+    
+    @Benchmark
+    public GameSimulation rebuildLevel() {
+        simulation.restart();
+        return simulation;
+    }
+}
@@ -0,0 +1,62 @@
+package com.ychstudio.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.physics.box2d.World;
+import com.ychstudio.gamesys.GameSimulation;
+
+/**
+ * Cost of one physics step, with every asteroid of the level in the world or only the chunks near the player,
+ * and with asteroid bodies or analytic asteroids.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PhysicsStepBenchmark {
+    
+    @Param({"true", "false"})
+    public boolean wholeLevel;
+    
+    @Param({"false", "true"})
+    public boolean analyticAsteroids;
+    
+    private GameSimulation simulation;
+    private World world;
+    
+    @Setup
+    public void setup() {
+        simulation = BenchmarkSupport.createSimulation(wholeLevel, analyticAsteroids);
+        world = simulation.getWorld();
+    }
+    
+    @TearDown
+    public void tearDown() {
+        simulation.dispose();
+    }
+    
+    @Benchmark
+    public void worldStep() {
+        world.step(GameSimulation.TIME_STEP, 8, 3);
+    }
+    
+    @Benchmark
+    public void simulationStep() {
+        simulation.step();
+    }
+}
@@ -2,36 +2,67 @@ package com.ychstudio;
 
 import com.badlogic.gdx.Game;
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
 import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
+import com.badlogic.gdx.utils.StringBuilder;
+import com.badlogic.gdx.utils.TimeUtils;
 import com.badlogic.gdx.utils.viewport.FitViewport;
 import com.kotcrab.vis.ui.VisUI;
+import com.ychstudio.gamesys.AssetManifest;
+import com.ychstudio.gamesys.AssetReport;
+import com.ychstudio.gamesys.FontService;
+import com.ychstudio.gamesys.FrameProfiler;
+import com.ychstudio.gamesys.FrameProfiler.Phase;
 import com.ychstudio.gamesys.GM;
+import com.ychstudio.gamesys.RenderContext;
+import com.ychstudio.gamesys.SoundMixer;
+import com.ychstudio.screens.LoadingScreen;
+import com.ychstudio.screens.ManifestScreen;
 import com.ychstudio.screens.MenuScreen;
 import com.ychstudio.screens.PlayScreen;
+import com.ychstudio.screens.huds.ProfilerHud;
 import com.ychstudio.screens.transitions.ScreenTransition;
 import com.ychstudio.screens.transitions.SlideLeftTransition;
 
 public class SpaceMission extends Game {
+	public static final int STREAM_BUDGET_MS = 4; // asset loading time per frame once the menu is shown
+	
+	// assets used by every screen, never released
+	public static final AssetManifest APP_MANIFEST = new AssetManifest("app")
+	        .add("audio/S31-Night Prowler.ogg", Music.class);
+	
 	private SpriteBatch batch;
 	private FitViewport viewport;
 	private Stage stage;
 	private Label fpsLabel;
+	private StringBuilder fpsText;
+	private int fps = -1;
+	private ProfilerHud profilerHud;
 	
 	private int w;
 	private int h;
 	
 	private Music bgm;
 	
+	private LoadingScreen loadingScreen;
+	private long createTime;
+	private boolean firstFrame = true;
+	private boolean gameLoaded;
+	private AssetManifest prefetched; // loaded ahead of its screen, released once the screen holds its own reference
+	
 	private Screen nextScreen;
 	
+	// kept across transitions, only re-created when the window size changes
 	private FrameBuffer currentFbo;
 	private FrameBuffer nextFbo;
+	private boolean currentCaptured; // currentFbo holds the outgoing screen of the running transition
 	
 	private float transitionTime = 0;
 	
@@ -39,15 +70,21 @@ public class SpaceMission extends Game {
 
 	@Override
 	public void create () {
+	    createTime = TimeUtils.nanoTime();
 	    VisUI.load();
-		batch = new SpriteBatch();
+	    RenderContext.create();
+	    if (Gdx.files.isLocalStorageAvailable()) {
+	        FontService.setCacheDirectory(Gdx.files.local("cache/fonts"));
+	    }
+		batch = RenderContext.getBatch();
 		
 		w = Gdx.graphics.getWidth();
 		h = Gdx.graphics.getHeight();
 		
 		viewport = new FitViewport(w, h);
-		stage = new Stage(viewport, batch);
+		stage = RenderContext.createStage(viewport);
 		fpsLabel = new Label("FPS:", VisUI.getSkin());
+		fpsText = new StringBuilder(16);
 		fpsLabel.setPosition(6f, 6f);
 
 		Label versionLabel = new Label("Version 0.2", VisUI.getSkin());
@@ -55,12 +92,40 @@ public class SpaceMission extends Game {
 		stage.addActor(fpsLabel);
 		stage.addActor(versionLabel);
 		
-		setScreen(new MenuScreen(this));
+		profilerHud = new ProfilerHud(VisUI.getSkin().getFont("default-font"));
 		
-		bgm = GM.getAssetManager().get("audio/S31-Night Prowler.ogg", Music.class);
-		bgm.setLooping(true);
-		bgm.setVolume(GM.musicVolume);
-		bgm.play();
+		APP_MANIFEST.load(GM.getAssetManager());
+		loadingScreen = new LoadingScreen(MenuScreen.MANIFEST);
+		setScreen(loadingScreen);
+	}
+	
+	private void menuLoaded() {
+	    loadingScreen = null;
+	    logStartup("menu ready");
+	    
+	    AssetManager assetManager = GM.getAssetManager();
+	    APP_MANIFEST.finishLoading(assetManager);
+	    
+	    bgm = assetManager.get("audio/S31-Night Prowler.ogg", Music.class);
+	    bgm.setLooping(true);
+	    bgm.setVolume(GM.musicVolume);
+	    bgm.play();
+	    
+	    setScreen(new MenuScreen(this));
+	}
+	
+	/**
+	 * Queues the manifest to stream in while the current screen is shown, unless it is already queued.
+	 */
+	private void prefetch(AssetManifest manifest) {
+	    if (prefetched == null) {
+	        prefetched = manifest;
+	        prefetched.load(GM.getAssetManager());
+	    }
+	}
+	
+	private void logStartup(String event) {
+	    Gdx.app.log("SpaceMission", event + " after " + TimeUtils.nanosToMillis(TimeUtils.timeSinceNanos(createTime)) + " ms");
 	}
 	
 	public void startGame() {
@@ -76,17 +141,22 @@ public class SpaceMission extends Game {
 	    setScreen(screen, null);
 	}
 	
+	/**
+	 * Loads the manifest of a ManifestScreen before showing it, blocking on the assets that are not loaded yet.
+	 * The manifest of the previous screen is released when the transition is over.
+	 */
 	public void setScreen(Screen screen, ScreenTransition screenTransition) {
-	    if (currentFbo != null) {
-	        currentFbo.dispose();
-	    }
-	    if (nextFbo != null) {
-	        nextFbo.dispose();
+	    if (screen instanceof ManifestScreen) {
+	        AssetManager assetManager = GM.getAssetManager();
+	        AssetManifest manifest = ((ManifestScreen) screen).getAssetManifest();
+	        manifest.load(assetManager);
+	        manifest.finishLoading(assetManager);
+	        if (manifest == prefetched) {
+	            prefetched.unload(assetManager);
+	            prefetched = null;
+	        }
 	    }
 	    
-	    currentFbo = new FrameBuffer(Pixmap.Format.RGB888, w, h, false);
-	    nextFbo = new FrameBuffer(Pixmap.Format.RGB888, w, h, false);
-	    
 	    nextScreen = screen;
 	    nextScreen.show();
 	    nextScreen.resize(w, h);
@@ -98,20 +168,64 @@ public class SpaceMission extends Game {
 	    nextScreen.pause();
 	    
 	    transitionTime = 0;
+	    currentCaptured = false;
 	    this.screenTransition = screenTransition;
 	}
 	
+	private void createFrameBuffers() {
+	    if (currentFbo == null) {
+	        currentFbo = new FrameBuffer(Pixmap.Format.RGB888, w, h, false);
+	        nextFbo = new FrameBuffer(Pixmap.Format.RGB888, w, h, false);
+	        currentCaptured = false;
+	    }
+	}
+	
+	private void disposeFrameBuffers() {
+	    if (currentFbo != null) {
+	        currentFbo.dispose();
+	        nextFbo.dispose();
+	        currentFbo = null;
+	        nextFbo = null;
+	    }
+	}
+	
 	public void exitGame() {
 	    Gdx.app.exit();
 	}
 	
 	public void update(float delta) {
-	    fpsLabel.setText("FPS: " + Gdx.graphics.getFramesPerSecond());
+	    if (loadingScreen != null) {
+	        if (loadingScreen.isLoaded()) {
+	            menuLoaded();
+	        }
+	    }
+	    else {
+	        GM.getAssetManager().update(STREAM_BUDGET_MS);
+	        if (!gameLoaded && PlayScreen.MANIFEST.isLoaded(GM.getAssetManager())) {
+	            gameLoaded = true;
+	            logStartup("game assets loaded");
+	        }
+	    }
+	    
+	    if (Gdx.input.isKeyJustPressed(Input.Keys.F3)) {
+	        profilerHud.setVisible(!profilerHud.isVisible());
+	        fpsLabel.setVisible(!profilerHud.isVisible());
+	    }
+	    if (Gdx.input.isKeyJustPressed(Input.Keys.F4)) {
+	        AssetReport.log(GM.getAssetManager());
+	    }
+	    int newFps = Gdx.graphics.getFramesPerSecond();
+	    if (newFps != fps) {
+	        fps = newFps;
+	        fpsText.setLength(0);
+	        fpsText.append("FPS: ").append(fps);
+	        fpsLabel.setText(fpsText);
+	    }
 	}
 
 	@Override
 	public void render () {
-	    float delta = Math.min(Gdx.graphics.getDeltaTime(), 1f / 60.0f);
+	    float delta = Math.min(Gdx.graphics.getDeltaTime(), 0.25f);
 	    update(delta);
 	    
 	    if (nextScreen == null) {
@@ -127,8 +241,16 @@ public class SpaceMission extends Game {
 	        transitionTime = Math.min(transitionTime + delta, duration);
 	        
 	        if (screenTransition == null || transitionTime >= duration) {
+	            if (nextScreen instanceof MenuScreen) {
+	                // the gameplay assets stream in while the menu is shown, queued before the play screen
+	                // releases its manifest so that assets still loaded are kept instead of loaded again
+	                prefetch(PlayScreen.MANIFEST);
+	            }
 	            if (screen != null) {
 	                screen.hide();
+	                if (screen instanceof ManifestScreen) {
+	                    ((ManifestScreen) screen).getAssetManifest().unload(GM.getAssetManager());
+	                }
 	            }
 	            nextScreen.resume();
 	            screen = nextScreen;
@@ -136,42 +258,65 @@ public class SpaceMission extends Game {
 	            screenTransition = null;
 	        }
 	        else {
-	            currentFbo.begin();
-	            if (screen != null) {
-	                screen.render(delta);
+	            // the whole transition, including both screens rendered into their frame buffers
+	            FrameProfiler.begin(Phase.TRANSITION);
+	            createFrameBuffers();
+	            if (!currentCaptured || !screenTransition.freezesCurrentScreen()) {
+	                currentFbo.begin();
+	                if (screen != null) {
+	                    screen.render(delta);
+	                }
+	                currentFbo.end();
+	                currentCaptured = true;
 	            }
-	            currentFbo.end();
 	            
 	            nextFbo.begin();
 	            nextScreen.render(delta);
 	            nextFbo.end();
 	            
 	            float alpha = transitionTime / duration;
+	            RenderContext.switchToScreen();
 	            screenTransition.rander(batch, currentFbo.getColorBufferTexture(), nextFbo.getColorBufferTexture(), alpha);
+	            RenderContext.countFlushes();
+	            FrameProfiler.end(Phase.TRANSITION);
 	        }
 	    }
 	    
-		stage.draw();
+	    FrameProfiler.begin(Phase.STAGE);
+		RenderContext.drawStage(stage);
+		FrameProfiler.end(Phase.STAGE);
+		
+		profilerHud.render();
+		RenderContext.endFrame();
+		SoundMixer.update(delta);
+		profilerHud.update(delta);
+		FrameProfiler.endFrame();
+		
+		if (firstFrame) {
+		    firstFrame = false;
+		    logStartup("first frame");
+		}
 	}
 
 	@Override
 	public void resize(int width, int height) {
+	    if (width != w || height != h) {
+	        disposeFrameBuffers();
+	    }
 	    w = width;
 	    h = height;
 	    viewport.update(width, height);
+	    RenderContext.resize(width, height);
 		super.resize(width, height);
 	}
 
     @Override
 	public void dispose() {
-	    if (currentFbo != null) {
-	        currentFbo.dispose();
-	    }
-	    if (nextFbo != null) {
-	        nextFbo.dispose();
-	    }
+	    disposeFrameBuffers();
 	    
-		batch.dispose();
+		profilerHud.dispose();
+		FontService.dispose();
+		RenderContext.dispose();
 		VisUI.dispose();
 	}
 
@@ -1,108 +1,78 @@
 package com.ychstudio.actors;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.Input;
-import com.badlogic.gdx.audio.Sound;
-import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.ashley.core.Entity;
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.g2d.TextureAtlas;
-import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.Filter;
-import com.badlogic.gdx.utils.Array;
-import com.ychstudio.gamesys.ActorBuilder;
+import com.ychstudio.ecs.DamageComponent;
+import com.ychstudio.ecs.Mappers;
+import com.ychstudio.ecs.PhysicsSyncSystem;
+import com.ychstudio.ecs.TransformComponent;
 import com.ychstudio.gamesys.GM;
-import com.ychstudio.screens.PlayScreen;
+import com.ychstudio.gamesys.GameSimulation;
+import com.ychstudio.gamesys.PlayerInput;
+import com.ychstudio.gamesys.RenderQueue;
 
-public class Player extends Actor {
+/**
+ * Flies the player's entity: reads the PlayerInput, pushes the body and takes the damage.
+ * The entity has the body, the transform, the ship's sprite and the damage; only the flames are drawn here.
+ */
+public class Player {
     
-    private PlayScreen playScreen;
+    private GameSimulation simulation;
+    private Entity entity;
+    private Body body;
+    private TransformComponent transform;
+    private DamageComponent damage;
     private Sprite flame;
     private boolean left_throttle;
     private boolean right_throttle;
-    private float rotation;
     private float torque = 2.4f;
     private float force = 1.6f;
 
     private float maxSpeed = 20f;
     private float speed;
-    private float maxHp = 36f;
-    private float hp;
     
-    private float goalY = 1000f; // the y position of the goal
+    private float goalY; // the y position of the goal, set by restart
     
     private boolean alive;
     
-    private Sound explosionSound;
-    private Sound throttleSound;
-    private long leftThrottleSoundId = -1;
-    private long rightThrottleSoundId = -1;
-    
+    // scratch vectors, so update does not allocate
     private final Vector2 tmpV = new Vector2();
+    private final Vector2 tmpVelocity = new Vector2();
+    private final Vector2 tmpPosition = new Vector2();
 
-    public Player(PlayScreen playScreen, Body body, TextureRegion textureRegion, float width, float height) {
-        this(playScreen, body, new Sprite(textureRegion), width, height);
-    }
-
-    public Player(PlayScreen playScreen, Body body, Sprite sprite, float width, float height) {
-        super(body, sprite, width, height);
-        this.playScreen = playScreen;
-        TextureRegion textureRegion = GM.getAssetManager().get("images/actors.pack", TextureAtlas.class).findRegion("Flame");
-        flame = new Sprite(textureRegion);
-        flame.setSize(width / 2f, height);
+    /**
+     * @param entity with a BodyComponent, a TransformComponent and a DamageComponent
+     * @param flame null in a headless simulation
+     */
+    public Player(GameSimulation simulation, Entity entity, Sprite flame) {
+        this.simulation = simulation;
+        this.entity = entity;
+        body = Mappers.body.get(entity).body;
+        transform = Mappers.transform.get(entity);
+        damage = Mappers.damage.get(entity);
+        this.flame = flame;
+        if (flame != null) {
+            flame.setSize(transform.width / 2f, transform.height);
+        }
         
         left_throttle = false;
         right_throttle = false;
         
-        throttleSound = GM.getAssetManager().get("audio/Throttle.mp3", Sound.class);
-        explosionSound = GM.getAssetManager().get("audio/Explosion1.ogg", Sound.class);
-        
-        rotation = 0;
-
-        hp = maxHp;
+        damage.hp = damage.maxHp;
         speed = 0;
         alive = true;
     }
 
-    @Override
     public void update(float delta) {
         
         // player controls
         if (alive) {
-            if (Gdx.input.isKeyPressed(Input.Keys.LEFT)) {
-                right_throttle = true;
-                if (rightThrottleSoundId < 0) {
-                    rightThrottleSoundId = throttleSound.loop(GM.soundVolume, 1.0f, 0.5f);
-                }
-                else {
-                    throttleSound.resume(rightThrottleSoundId);;
-                }
-            }
-            else {
-                right_throttle = false;
-                if (rightThrottleSoundId >= 0) {
-                    throttleSound.pause(rightThrottleSoundId);;
-                }
-            }
-
-            if (Gdx.input.isKeyPressed(Input.Keys.RIGHT)) {
-                left_throttle = true;
-                if (leftThrottleSoundId < 0) {
-                    leftThrottleSoundId = throttleSound.loop(GM.soundVolume, 1.0f, -0.5f);
-                }
-                else {
-                    throttleSound.resume(leftThrottleSoundId);;
-                }
-            }
-            else {
-                left_throttle = false;
-                if (leftThrottleSoundId >= 0) {
-                    throttleSound.pause(leftThrottleSoundId);;
-                }
-            }
+            PlayerInput input = simulation.getInput();
+            setThrottles(input.leftThrottle, input.rightThrottle);
 
             if (left_throttle && right_throttle) {
                 float px = force * MathUtils.sin(-body.getAngle());
@@ -118,18 +88,19 @@ public class Player extends Actor {
         }
         else {
             // player is dead
-            float vx = body.getLinearVelocity().x / 2f;
-            float vy = body.getLinearVelocity().y / 2f;
-            body.setLinearVelocity(vx, vy);
+            body.setLinearVelocity(tmpV.set(body.getLinearVelocity()).scl(0.5f));
         }
         
         // limit player's speed
-        if (body.getLinearVelocity().len2() > maxSpeed * maxSpeed) {
-            body.setLinearVelocity(body.getLinearVelocity().nor().scl(maxSpeed));
+        Vector2 velocity = tmpVelocity.set(body.getLinearVelocity());
+        if (velocity.len2() > maxSpeed * maxSpeed) {
+            body.setLinearVelocity(velocity.nor().scl(maxSpeed));
         }
         
+        Vector2 position = tmpPosition.set(body.getPosition());
+        
         // when player enters the space
-        if (body.getPosition().y > GM.SKY_LINE) {
+        if (position.y > GM.SKY_LINE) {
             body.setGravityScale(0);
             body.setLinearDamping(0.25f);
         }
@@ -140,44 +111,39 @@ public class Player extends Actor {
         
         // player explodes
         if (alive) {
-            if (isOutOfBound() || hp < 0) {
+            if (isOutOfBound() || damage.hp < 0) {
                 explode();
             }
         }
         
-        x = body.getPosition().x;
-        y = body.getPosition().y;
-        sprite.setPosition(x - width / 2, y - height / 2);
-        
-        rotation = MathUtils.radiansToDegrees * body.getAngle();
-        sprite.setRotation(rotation);
-        
-        float vx = body.getLinearVelocity().x;
-        float vy = body.getLinearVelocity().y;
-        speed = (float) Math.sqrt(vx * vx + vy * vy);
+        speed = tmpVelocity.set(body.getLinearVelocity()).len();
         
     }
 
-    @Override
-    public void render(SpriteBatch batch) {
+    /**
+     * Queues the flames of the throttles at the render state, before RenderSystem queues the ship.
+     */
+    public void render(RenderQueue queue) {
         
-        if (!alive) {
+        if (!alive || flame == null) {
             return;
         }
         
+        float width = transform.width;
+        float height = transform.height;
+        float rotation = transform.renderAngle * MathUtils.radiansToDegrees;
         if (left_throttle) {
-            flame.setPosition(x - width / 2, y - height);
+            flame.setPosition(transform.renderX - width / 2, transform.renderY - height);
             flame.setOrigin(width / 2, height);
             flame.setRotation(rotation);
-            flame.draw(batch);
+            queue.submit(RenderQueue.ACTORS, flame);
         }
         if (right_throttle) {
-            flame.setPosition(x, y - height);
+            flame.setPosition(transform.renderX, transform.renderY - height);
             flame.setOrigin(0, height);
             flame.setRotation(rotation);
-            flame.draw(batch);
+            queue.submit(RenderQueue.ACTORS, flame);
         }
-        sprite.draw(batch);
     }
     
     public boolean isPlayerAlive() {
@@ -190,26 +156,31 @@ public class Player extends Actor {
     }
     
     public void explode() {
-        hp = 0;
+        damage.hp = 0;
         alive = false;
         Filter filter = body.getFixtureList().get(0).getFilterData();
         filter.categoryBits = GM.NOTHING_CATEGORY_BITS;
         body.getFixtureList().get(0).setFilterData(filter);
         body.setGravityScale(0);
         body.setLinearVelocity(0, 0);
-        Array<ParticleEffect> particleEffects = playScreen.getParticleEffectArray();
-        ActorBuilder.createExplodeEffect(x, y, particleEffects);
         
-        if (leftThrottleSoundId >= 0) {
-            throttleSound.pause(leftThrottleSoundId);
-        }
-        if (rightThrottleSoundId >= 0) {
-            throttleSound.pause(rightThrottleSoundId);
+        setThrottles(false, false);
+        simulation.getEventListener().playerExploded(this, transform.x, transform.y);
+    }
+    
+    private void setThrottles(boolean left, boolean right) {
+        if (left != left_throttle || right != right_throttle) {
+            left_throttle = left;
+            right_throttle = right;
+            simulation.getEventListener().throttleChanged(this, left_throttle, right_throttle);
         }
-        explosionSound.play(GM.soundVolume, 1f, (x - 10f) / 20f);
     }
     
-    public void restart() {
+    /**
+     * Puts the player back on the ground with full hp for a flight whose goal is at goalY.
+     */
+    public void restart(float goalY) {
+        this.goalY = goalY;
         // reset player
         Filter filter = body.getFixtureList().get(0).getFilterData();
         filter.categoryBits = GM.PLAYER_CATEGORY_BITS;
@@ -217,7 +188,8 @@ public class Player extends Actor {
         body.setLinearVelocity(0, 0);
         body.setTransform(10f, 2.5f, 0);
         body.setAngularVelocity(0);
-        hp = maxHp;
+        PhysicsSyncSystem.snap(entity);
+        damage.hp = damage.maxHp;
         alive = true;
     }
     
@@ -228,11 +200,11 @@ public class Player extends Actor {
     }
 
     public float getHp() {
-        return hp;
+        return damage.hp;
     }
     
     public float getHpRatio() {
-        return hp / maxHp;
+        return damage.hp / damage.maxHp;
     }
     
     public float getSpeedRatio() {
@@ -240,11 +212,11 @@ public class Player extends Actor {
     }
     
     public float getProgress() {
-        return y / goalY;
+        return transform.y / goalY;
     }
 
     public void getDamaged(float damage) {
-        hp -= damage;
+        this.damage.hp -= damage;
     }
     
     public float getSpeed() {
@@ -255,8 +227,16 @@ public class Player extends Actor {
         return body.getPosition();
     }
     
-    public boolean goal(float goal) {
-        return alive && y >= goal;
+    public float getAngle() {
+        return body.getAngle();
+    }
+    
+    public boolean goal() {
+        return alive && transform.y >= goalY;
+    }
+    
+    public Entity getEntity() {
+        return entity;
     }
 
 }
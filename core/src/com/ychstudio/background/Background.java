@@ -3,131 +3,96 @@ package com.ychstudio.background;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.Texture.TextureFilter;
-import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
 import com.ychstudio.gamesys.GM;
+import com.ychstudio.gamesys.RenderQueue;
 
-public class Background {
-
-    private SpriteBatch batch;
+/**
+ * Scrolling stars plus BackgroundLayers placed along the flight.
+ * Layers only hold their texture while the view is near their altitude, see BackgroundLayer.
+ * The stars go on the SKY layer and the pictures on the BACKGROUND layer, which must not overlap each other.
+ */
+public class Background implements Disposable {
+    
+    public static final float LOAD_DISTANCE = 60f; // start loading a layer this far before the view reaches it
+    public static final float UNLOAD_DISTANCE = 90f; // release a layer once the view is this far past it
+    
+    private AssetManager assetManager;
     
-    private Sprite earthSprite;
     private Texture starsTexture;
     
-    private Sprite blueDustSprite1;
-    private Sprite blueDustSprite2;
-    private Sprite coldNebulaSprite;
-    private Sprite hotNebulaSprite;
-    private Sprite violetDustSprite;
-    private Sprite yellowDustSprite1;
-    private Sprite yellowDustSprite2;
-    private Sprite moonSprite;
+    private Array<BackgroundLayer> layers;
     
     private float width;
     private float height;
     
-    private float previousPlayerX;
-    private float previousPlayerY = 0;
+    private BackgroundScroll scroll;
     
-    private float offsetX = 0; // space texture offset of x
-    private float offsetY = 0; // space texture offset of y
-    
-    public Background(SpriteBatch batch, float width, float height) {
-        this.batch = batch;
+    public Background(float width, float height) {
         this.width = width * 2 * 2.5f;
         this.height = height * 2.5f;
+        scroll = new BackgroundScroll(this.height);
         
-        AssetManager assetManager = GM.getAssetManager();
-        earthSprite = new Sprite(assetManager.get("images/EarthBackground.png", Texture.class));
-        earthSprite.setBounds(-width, 0, width * 2, height);
-        
-        Texture blueDustTexture = assetManager.get("images/BlueDust.png", Texture.class);
-        Texture coldNebulaTexture = assetManager.get("images/ColdNebula.png", Texture.class);
-        Texture hotNebulaTexture = assetManager.get("images/HotNebula.png", Texture.class);
-        Texture violetDustTexture = assetManager.get("images/VioletDust.png", Texture.class);
-        Texture yellowDustTexture = assetManager.get("images/YellowDust.png", Texture.class);
-        Texture moonTexture = assetManager.get("images/Moon.png", Texture.class);
-        
-        blueDustTexture.setFilter(TextureFilter.Linear, TextureFilter.Linear);
-        coldNebulaTexture.setFilter(TextureFilter.Linear, TextureFilter.Linear);
-        hotNebulaTexture.setFilter(TextureFilter.Linear, TextureFilter.Linear);
-        violetDustTexture.setFilter(TextureFilter.Linear, TextureFilter.Linear);
-        yellowDustTexture.setFilter(TextureFilter.Linear, TextureFilter.Linear);
-        moonTexture.setFilter(TextureFilter.Linear, TextureFilter.Linear);
+        assetManager = GM.getAssetManager();
         
-        blueDustSprite1 = new Sprite(blueDustTexture);
-        blueDustSprite2 = new Sprite(blueDustTexture);
-        coldNebulaSprite = new Sprite(coldNebulaTexture);
-        hotNebulaSprite = new Sprite(hotNebulaTexture);
-        violetDustSprite = new Sprite(violetDustTexture);
-        yellowDustSprite1 = new Sprite(yellowDustTexture);
-        yellowDustSprite2 = new Sprite(yellowDustTexture);
-        
-        blueDustSprite1.setBounds(-10f, 60f, 45f, 30f);
-        yellowDustSprite1.setBounds(-28f, 180f, 62f, 32f);
-        coldNebulaSprite.setBounds(-20f, 300f, 60f, 65f);
-        hotNebulaSprite.setBounds(-28f, 450f, 72f, 90f);
-        yellowDustSprite2.setBounds(-6f, 630f, 62f, 32f);
-        violetDustSprite.setBounds(-28f, 760f, 72f, 42f);
-        blueDustSprite2.setBounds(-16f, 880f, 45f, 30f);
-        
-        moonSprite = new Sprite(moonTexture);
-        moonSprite.setBounds(-2f, 980f, 52f, 52f);
+        // along the flight
+        layers = new Array<>();
+        layers.add(new BackgroundLayer("images/EarthBackground.png", -width, 0, width * 2, height, false));
+        layers.add(new BackgroundLayer("images/BlueDust.png", -10f, 60f, 45f, 30f, true));
+        layers.add(new BackgroundLayer("images/BlueDust.png", -16f, 880f, 45f, 30f, true));
+        layers.add(new BackgroundLayer("images/ColdNebula.png", -20f, 300f, 60f, 65f, true));
+        layers.add(new BackgroundLayer("images/HotNebula.png", -28f, 450f, 72f, 90f, true));
+        layers.add(new BackgroundLayer("images/VioletDust.png", -28f, 760f, 72f, 42f, true));
+        layers.add(new BackgroundLayer("images/YellowDust.png", -28f, 180f, 62f, 32f, true));
+        layers.add(new BackgroundLayer("images/YellowDust.png", -6f, 630f, 62f, 32f, true));
+        layers.add(new BackgroundLayer("images/Moon.png", -2f, 980f, 52f, 52f, true));
         
         starsTexture = assetManager.get("images/Stars.png", Texture.class);
         starsTexture.setFilter(TextureFilter.Linear, TextureFilter.Linear);
         
     }
     
-    private float getOffset(float value, float min, float max) {
-        float total = max - min;
-        if (value < min) {
-            while (value < min) {
-                value += total;
-            }
-            return value;
-        }
-        else if (value > max) {
-            while (value > max) {
-                value -= total;
-            }
-            return value;
+    /**
+     * Scrolls the stars and requests or releases the layer textures for the visible range.
+     */
+    public void update(Vector2 playerPos, float viewBottom, float viewTop) {
+        scroll.update(playerPos);
+        
+        // the queued textures are loaded a bit every frame by SpaceMission.update()
+        for (int i = 0; i < layers.size; i++) {
+            layers.get(i).update(assetManager, viewBottom, viewTop, LOAD_DISTANCE, UNLOAD_DISTANCE);
         }
-        return value;
     }
     
-    public void update(Vector2 playerPos) {
+    public void render(RenderQueue queue, float viewBottom, float viewTop) {
         
-        float currentPlayerX = playerPos.x;
-        float currentPlayerY = playerPos.y;
+        float offsetX = scroll.getOffsetX();
+        float offsetY = scroll.getOffsetY();
+        float playerY = scroll.getPlayerY();
+        float offsetPercentY = offsetY / height;
         
-        offsetX += -(currentPlayerX - previousPlayerX) / 6f;
-        offsetY += -(currentPlayerY - previousPlayerY) / 6f;
-
-        offsetY = getOffset(offsetY, 0, height);
+        queue.submit(RenderQueue.SKY, starsTexture, -width/4+offsetX, playerY-height/2, width, offsetY, 0, 1-offsetPercentY, 1, 1);
+        queue.submit(RenderQueue.SKY, starsTexture, -width/4+offsetX, playerY-height/2+offsetY, width, height-offsetY, 0, 0, 1, 1-offsetPercentY);
         
-        previousPlayerX = currentPlayerX;
-        previousPlayerY = currentPlayerY;
+        for (int i = 0; i < layers.size; i++) {
+            layers.get(i).render(queue, viewBottom, viewTop);
+        }
     }
     
-    public void render() {
-        
-        float offsetPercentY = offsetY / height;
-        
-        batch.draw(starsTexture, -width/4+offsetX, previousPlayerY-height/2, width, offsetY, 0, 1-offsetPercentY, 1, 1);
-        batch.draw(starsTexture, -width/4+offsetX, previousPlayerY-height/2+offsetY, width, height-offsetY, 0, 0, 1, 1-offsetPercentY);
-        
-        earthSprite.draw(batch);
-        blueDustSprite1.draw(batch);
-        blueDustSprite2.draw(batch);
-        coldNebulaSprite.draw(batch);
-        hotNebulaSprite.draw(batch);
-        violetDustSprite.draw(batch);
-        yellowDustSprite1.draw(batch);
-        yellowDustSprite2.draw(batch);
-        
-        moonSprite.draw(batch);
+    public Array<BackgroundLayer> getLayers() {
+        return layers;
+    }
+    
+    /**
+     * Releases the streamed textures still held by the layers.
+     */
+    @Override
+    public void dispose() {
+        for (int i = 0; i < layers.size; i++) {
+            layers.get(i).release(assetManager);
+        }
     }
     
 }
@@ -0,0 +1,103 @@
+package com.ychstudio.background;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.TextureLoader.TextureParameter;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.ychstudio.gamesys.RenderQueue;
+
+/**
+ * A background picture placed at a fixed altitude.
+ * The texture of a streamed layer is queued on the AssetManager when the view comes close to the layer,
+ * and unloaded once the view has moved far enough away.
+ */
+public class BackgroundLayer {
+    
+    private static final TextureParameter LINEAR = new TextureParameter();
+    static {
+        LINEAR.minFilter = TextureFilter.Linear;
+        LINEAR.magFilter = TextureFilter.Linear;
+    }
+    
+    private final String fileName;
+    private final float x, y, width, height;
+    private final boolean streamed;
+    
+    private boolean requested; // load has been called on the AssetManager
+    private Sprite sprite;
+    
+    /**
+     * @param streamed false for a texture that is kept loaded by someone else
+     */
+    public BackgroundLayer(String fileName, float x, float y, float width, float height, boolean streamed) {
+        this.fileName = fileName;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.streamed = streamed;
+    }
+    
+    /**
+     * Requests or releases the texture depending on how far the layer is from the view.
+     * @param loadDistance queue the texture when the layer is closer than this to the view
+     * @param unloadDistance release the texture when the layer is farther than this from the view
+     */
+    public void update(AssetManager assetManager, float viewBottom, float viewTop, float loadDistance, float unloadDistance) {
+        float distance = Math.max(y - viewTop, viewBottom - (y + height));
+        
+        if (!streamed) {
+            if (sprite == null && assetManager.isLoaded(fileName, Texture.class)) {
+                createSprite(assetManager);
+            }
+            return;
+        }
+        
+        if (!requested && distance < loadDistance) {
+            assetManager.load(fileName, Texture.class, LINEAR);
+            requested = true;
+        }
+        else if (requested && distance > unloadDistance) {
+            release(assetManager);
+        }
+        
+        if (requested && sprite == null && assetManager.isLoaded(fileName, Texture.class)) {
+            createSprite(assetManager);
+        }
+    }
+    
+    private void createSprite(AssetManager assetManager) {
+        sprite = new Sprite(assetManager.get(fileName, Texture.class));
+        sprite.setBounds(x, y, width, height);
+    }
+    
+    /**
+     * Gives the texture back to the AssetManager, or takes it out of the load queue if it is not loaded yet.
+     */
+    public void release(AssetManager assetManager) {
+        if (streamed && requested) {
+            assetManager.unload(fileName);
+            requested = false;
+        }
+        sprite = null;
+    }
+    
+    /**
+     * Queues the layer on the BACKGROUND layer if its texture is loaded and it overlaps the view.
+     */
+    public void render(RenderQueue queue, float viewBottom, float viewTop) {
+        if (sprite == null || y > viewTop || y + height < viewBottom) {
+            return;
+        }
+        queue.submit(RenderQueue.BACKGROUND, sprite);
+    }
+    
+    public boolean isLoaded() {
+        return sprite != null;
+    }
+    
+    public String getFileName() {
+        return fileName;
+    }
+}
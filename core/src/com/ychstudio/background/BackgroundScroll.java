@@ -0,0 +1,65 @@
+package com.ychstudio.background;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Keeps track of how far the star texture has scrolled while the player moves.
+ * It has no graphics state, so it can be updated without a GL context.
+ */
+public class BackgroundScroll {
+    
+    private float height;
+    
+    private float previousPlayerX;
+    private float previousPlayerY = 0;
+    
+    private float offsetX = 0; // space texture offset of x
+    private float offsetY = 0; // space texture offset of y
+    
+    public BackgroundScroll(float height) {
+        this.height = height;
+    }
+    
+    public static float getOffset(float value, float min, float max) {
+        float total = max - min;
+        if (value < min) {
+            while (value < min) {
+                value += total;
+            }
+            return value;
+        }
+        else if (value > max) {
+            while (value > max) {
+                value -= total;
+            }
+            return value;
+        }
+        return value;
+    }
+    
+    public void update(Vector2 playerPos) {
+        
+        float currentPlayerX = playerPos.x;
+        float currentPlayerY = playerPos.y;
+        
+        offsetX += -(currentPlayerX - previousPlayerX) / 6f;
+        offsetY += -(currentPlayerY - previousPlayerY) / 6f;
+
+        offsetY = getOffset(offsetY, 0, height);
+        
+        previousPlayerX = currentPlayerX;
+        previousPlayerY = currentPlayerY;
+    }
+    
+    public float getOffsetX() {
+        return offsetX;
+    }
+    
+    public float getOffsetY() {
+        return offsetY;
+    }
+    
+    public float getPlayerY() {
+        return previousPlayerY;
+    }
+}
@@ -0,0 +1,19 @@
+package com.ychstudio.ecs;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.utils.Pool.Poolable;
+
+/**
+ * The Box2D body that moves the entity, PhysicsSyncSystem copies its state into the TransformComponent.
+ * The body belongs to the World and goes with it.
+ */
+public class BodyComponent implements Component, Poolable {
+
+    public Body body;
+
+    @Override
+    public void reset() {
+        body = null;
+    }
+}
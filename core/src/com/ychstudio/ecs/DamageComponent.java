@@ -0,0 +1,19 @@
+package com.ychstudio.ecs;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Pool.Poolable;
+
+/**
+ * How much damage the entity can still take.
+ */
+public class DamageComponent implements Component, Poolable {
+
+    public float hp;
+    public float maxHp;
+
+    @Override
+    public void reset() {
+        hp = 0;
+        maxHp = 0;
+    }
+}
@@ -0,0 +1,21 @@
+package com.ychstudio.ecs;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool.PooledEffect;
+import com.badlogic.gdx.utils.Pool.Poolable;
+
+/**
+ * A particle effect from an EffectPool, given back to its pool when the entity is removed.
+ */
+public class EffectComponent implements Component, Poolable {
+
+    public PooledEffect effect;
+
+    @Override
+    public void reset() {
+        if (effect != null) {
+            effect.free();
+            effect = null;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.ychstudio.ecs;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Pool.Poolable;
+
+/**
+ * Seconds of simulation until RemovalSystem removes the entity.
+ */
+public class LifetimeComponent implements Component, Poolable {
+
+    public float remaining;
+
+    @Override
+    public void reset() {
+        remaining = 0;
+    }
+}
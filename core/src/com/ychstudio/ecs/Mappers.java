@@ -0,0 +1,16 @@
+package com.ychstudio.ecs;
+
+import com.badlogic.ashley.core.ComponentMapper;
+
+public class Mappers {
+
+    public static final ComponentMapper<TransformComponent> transform = ComponentMapper.getFor(TransformComponent.class);
+    public static final ComponentMapper<BodyComponent> body = ComponentMapper.getFor(BodyComponent.class);
+    public static final ComponentMapper<DamageComponent> damage = ComponentMapper.getFor(DamageComponent.class);
+    public static final ComponentMapper<SpriteComponent> sprite = ComponentMapper.getFor(SpriteComponent.class);
+    public static final ComponentMapper<EffectComponent> effect = ComponentMapper.getFor(EffectComponent.class);
+    public static final ComponentMapper<LifetimeComponent> lifetime = ComponentMapper.getFor(LifetimeComponent.class);
+
+    private Mappers() {
+    }
+}
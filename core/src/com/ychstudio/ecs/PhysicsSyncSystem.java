@@ -0,0 +1,50 @@
+package com.ychstudio.ecs;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.systems.IteratingSystem;
+import com.badlogic.gdx.physics.box2d.Body;
+
+/**
+ * Copies the state of every body into its transform after the physics step and keeps the state before it,
+ * interpolate() then places the render state in between. Entities without a body, such as the static ground, are not synced.
+ */
+public class PhysicsSyncSystem extends IteratingSystem {
+
+    public PhysicsSyncSystem(int priority) {
+        super(Family.all(TransformComponent.class, BodyComponent.class).get(), priority);
+    }
+
+    @Override
+    protected void processEntity(Entity entity, float deltaTime) {
+        TransformComponent transform = Mappers.transform.get(entity);
+        Body body = Mappers.body.get(entity).body;
+        transform.previousX = transform.x;
+        transform.previousY = transform.y;
+        transform.previousAngle = transform.angle;
+        transform.x = body.getPosition().x;
+        transform.y = body.getPosition().y;
+        transform.angle = body.getAngle();
+    }
+
+    /**
+     * Sets the render state of every synced entity.
+     * @param alpha 0 for the state before the last physics step, 1 for the state after it
+     */
+    public void interpolate(float alpha) {
+        for (int i = 0; i < getEntities().size(); i++) {
+            TransformComponent transform = Mappers.transform.get(getEntities().get(i));
+            transform.renderX = transform.previousX + (transform.x - transform.previousX) * alpha;
+            transform.renderY = transform.previousY + (transform.y - transform.previousY) * alpha;
+            transform.renderAngle = transform.previousAngle + (transform.angle - transform.previousAngle) * alpha;
+        }
+    }
+
+    /**
+     * Reads the body's state and discards the previous one, for a body that has been teleported.
+     */
+    public static void snap(Entity entity) {
+        Body body = Mappers.body.get(entity).body;
+        Mappers.transform.get(entity).set(body.getPosition().x, body.getPosition().y, body.getAngle());
+    }
+}
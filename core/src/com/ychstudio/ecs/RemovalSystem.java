@@ -0,0 +1,35 @@
+package com.ychstudio.ecs;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.systems.IteratingSystem;
+import com.badlogic.ashley.utils.ImmutableArray;
+
+/**
+ * Removes the entities whose lifetime is over, their components go back to the engine's pools.
+ */
+public class RemovalSystem extends IteratingSystem {
+
+    public RemovalSystem(int priority) {
+        super(Family.all(LifetimeComponent.class).get(), priority);
+    }
+
+    @Override
+    protected void processEntity(Entity entity, float deltaTime) {
+        LifetimeComponent lifetime = Mappers.lifetime.get(entity);
+        lifetime.remaining -= deltaTime;
+        if (lifetime.remaining <= 0) {
+            getEngine().removeEntity(entity);
+        }
+    }
+
+    /**
+     * Removes every entity with a lifetime, such as the explosions of the last flight. Not to be called during update.
+     */
+    public void removeAll() {
+        ImmutableArray<Entity> entities = getEntities();
+        for (int i = entities.size() - 1; i >= 0; i--) {
+            getEngine().removeEntity(entities.get(i));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.ychstudio.ecs;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool.PooledEffect;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.MathUtils;
+import com.ychstudio.gamesys.RenderQueue;
+
+/**
+ * Queues the entities with a sprite at their render state on the sprite's layer and draws the particle effects.
+ * It is not processed by Engine.update, the screen calls render and renderEffects once per frame.
+ */
+public class RenderSystem extends EntitySystem {
+
+    private ImmutableArray<Entity> entities;
+    private ImmutableArray<Entity> effects;
+
+    public RenderSystem() {
+        setProcessing(false);
+    }
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        entities = engine.getEntitiesFor(Family.all(TransformComponent.class, SpriteComponent.class).get());
+        effects = engine.getEntitiesFor(Family.all(EffectComponent.class).get());
+    }
+
+    @Override
+    public void removedFromEngine(Engine engine) {
+        entities = null;
+        effects = null;
+    }
+
+    public void render(RenderQueue queue) {
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
+            TransformComponent transform = Mappers.transform.get(entity);
+            SpriteComponent spriteComponent = Mappers.sprite.get(entity);
+
+            Sprite sprite = spriteComponent.sprite;
+            sprite.setBounds(transform.renderX - transform.width / 2 + spriteComponent.offsetX,
+                    transform.renderY - transform.height / 2 + spriteComponent.offsetY, transform.width, transform.height);
+            sprite.setOriginCenter();
+            sprite.setRotation(transform.renderAngle * MathUtils.radiansToDegrees);
+            queue.submit(spriteComponent.layer, sprite);
+        }
+    }
+
+    /**
+     * Advances and draws the particle effects, they switch the blend function so they draw straight into the batch.
+     */
+    public void renderEffects(SpriteBatch batch, float delta) {
+        for (int i = 0; i < effects.size(); i++) {
+            PooledEffect effect = Mappers.effect.get(effects.get(i)).effect;
+            effect.draw(batch, delta);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.ychstudio.ecs;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.utils.Pool.Poolable;
+import com.ychstudio.gamesys.RenderQueue;
+
+/**
+ * How the entity is drawn, centered on its transform plus the offset.
+ */
+public class SpriteComponent implements Component, Poolable {
+
+    public Sprite sprite;
+    public float offsetX, offsetY;
+    public int layer = RenderQueue.ACTORS;
+
+    @Override
+    public void reset() {
+        sprite = null;
+        offsetX = 0;
+        offsetY = 0;
+        layer = RenderQueue.ACTORS;
+    }
+}
@@ -0,0 +1,34 @@
+package com.ychstudio.ecs;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Pool.Poolable;
+
+/**
+ * Where an entity is and how big it is drawn.
+ * Entities with a body also keep their state before the last physics step, and the render state
+ * PhysicsSyncSystem.interpolate() places between the two.
+ */
+public class TransformComponent implements Component, Poolable {
+
+    public float x, y;
+    public float angle; // in radians
+    public float previousX, previousY, previousAngle;
+    public float renderX, renderY, renderAngle;
+    public float width, height;
+
+    /**
+     * Places the entity without interpolating from where it was.
+     */
+    public void set(float x, float y, float angle) {
+        this.x = previousX = renderX = x;
+        this.y = previousY = renderY = y;
+        this.angle = previousAngle = renderAngle = angle;
+    }
+
+    @Override
+    public void reset() {
+        set(0, 0, 0);
+        width = 0;
+        height = 0;
+    }
+}
@@ -1,12 +1,14 @@
 package com.ychstudio.gamesys;
 
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.PooledEngine;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool.PooledEffect;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.BodyDef;
 import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
@@ -15,30 +17,121 @@ import com.badlogic.gdx.physics.box2d.FixtureDef;
 import com.badlogic.gdx.physics.box2d.PolygonShape;
 import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.utils.Array;
-import com.ychstudio.actors.Asteroid;
-import com.ychstudio.actors.Ground;
 import com.ychstudio.actors.Player;
-import com.ychstudio.screens.PlayScreen;
+import com.ychstudio.ecs.BodyComponent;
+import com.ychstudio.ecs.DamageComponent;
+import com.ychstudio.ecs.EffectComponent;
+import com.ychstudio.ecs.LifetimeComponent;
+import com.ychstudio.ecs.SpriteComponent;
+import com.ychstudio.ecs.TransformComponent;
 
 public class ActorBuilder {
     private static ActorBuilder instance = new ActorBuilder();
+
+    public static final float PLAYER_WIDTH = 64f / GM.PPM;
+    public static final float PLAYER_HEIGHT = 64f / GM.PPM;
+    public static final float PLAYER_MAX_HP = 36f;
+    public static final int EFFECT_POOL_MAX = 64; // free effects each pool keeps, the rest are left to the GC
+
+    /** The player's hull around the body's origin, counterclockwise. Must not be changed. */
+    public static final float[] PLAYER_VERTICES = {
+            -PLAYER_WIDTH / 2, -PLAYER_HEIGHT / 2,
+            PLAYER_WIDTH / 2, -PLAYER_HEIGHT / 2,
+            PLAYER_WIDTH / 4, PLAYER_HEIGHT / 2,
+            -PLAYER_WIDTH / 4, PLAYER_HEIGHT / 2
+    };
     
     private World world;
     private AssetManager assetManager;
     
+    private EffectPool explodeEffectPool;
+    private EffectPool asteroidExplodeSmallEffectPool;
+    private EffectPool asteroidExplodeMediumEffectPool;
+    private EffectPool asteroidExplodeEffectPool;
+    private Array<EffectPool> effectPools;
+    
+    private TextureAtlas asteroidAtlas;
+    private TextureRegion[][] asteroidRegions; // [color][size]
+    
     private ActorBuilder() {
-        assetManager = GM.getAssetManager();
+        asteroidRegions = new TextureRegion[2][7];
+    }
+    
+    /**
+     * Sets where sprites are taken from. Without an AssetManager actors are built without sprites,
+     * which is how a headless GameSimulation runs.
+     */
+    public static void setAssetManager(AssetManager assetManager) {
+        instance.assetManager = assetManager;
     }
     
     public static void setWorld(World world) {
         instance.world = world;
     }
     
-    public static Ground createGround(float x, float y) {
+    /**
+     * Creates the particle effect pools on first use and fills each of them with count free effects,
+     * so explosions during play are served without copying the emitters.
+     */
+    public static void prepareEffectPools(int count) {
+        if (instance.effectPools == null) {
+            AssetManager assetManager = instance.assetManager;
+            instance.explodeEffectPool = new EffectPool("explode",
+                    assetManager.get("particles/explode.particle", ParticleEffect.class),
+                    count, EFFECT_POOL_MAX);
+            instance.asteroidExplodeSmallEffectPool = new EffectPool("asteroid_explode_small",
+                    assetManager.get("particles/asteroid_explode_small.particle", ParticleEffect.class),
+                    count, EFFECT_POOL_MAX);
+            instance.asteroidExplodeMediumEffectPool = new EffectPool("asteroid_explode_medium",
+                    assetManager.get("particles/asteroid_explode_medium.particle", ParticleEffect.class),
+                    count, EFFECT_POOL_MAX);
+            instance.asteroidExplodeEffectPool = new EffectPool("asteroid_explode",
+                    assetManager.get("particles/asteroid_explode.particle", ParticleEffect.class),
+                    count, EFFECT_POOL_MAX);
+            
+            instance.effectPools = new Array<>();
+            instance.effectPools.add(instance.explodeEffectPool);
+            instance.effectPools.add(instance.asteroidExplodeSmallEffectPool);
+            instance.effectPools.add(instance.asteroidExplodeMediumEffectPool);
+            instance.effectPools.add(instance.asteroidExplodeEffectPool);
+        }
+        
+        for (EffectPool pool : instance.effectPools) {
+            pool.prewarm(count);
+        }
+    }
+    
+    /**
+     * Drops the effect pools, must be called before the particle effects they copy are unloaded.
+     */
+    public static void releaseEffectPools() {
+        if (instance.effectPools != null) {
+            for (EffectPool pool : instance.effectPools) {
+                pool.clear();
+            }
+        }
+        instance.effectPools = null;
+        instance.explodeEffectPool = null;
+        instance.asteroidExplodeSmallEffectPool = null;
+        instance.asteroidExplodeMediumEffectPool = null;
+        instance.asteroidExplodeEffectPool = null;
+    }
+    
+    public static Array<EffectPool> getEffectPools() {
+        return instance.effectPools;
+    }
+    
+    /**
+     * Adds the ground entity to the engine, it has a sprite only when there is an AssetManager.
+     */
+    public static Entity createGround(PooledEngine engine, float x, float y) {
         World world = instance.world;
         AssetManager assetManager = instance.assetManager;
-        Texture earthTexture = assetManager.get("images/Earth.png", Texture.class);
-        Sprite sprite = new Sprite(earthTexture);
+        Sprite sprite = null;
+        if (assetManager != null) {
+            Texture earthTexture = assetManager.get("images/Earth.png", Texture.class);
+            sprite = new Sprite(earthTexture);
+        }
         
         BodyDef bodyDef = new BodyDef();
         bodyDef.type = BodyType.StaticBody;
@@ -58,31 +151,41 @@ public class ActorBuilder {
         body.createFixture(fixtureDef);
         shape.dispose();
         
-        Ground ground = new Ground(body, sprite, width, height);
+        Entity ground = engine.createEntity();
+        TransformComponent transform = engine.createComponent(TransformComponent.class);
+        transform.set(x, y, 0);
+        // the picture of the earth is much larger than the ground it stands on
+        transform.width = 40f;
+        transform.height = 8f;
+        ground.add(transform);
+        if (sprite != null) {
+            SpriteComponent spriteComponent = engine.createComponent(SpriteComponent.class);
+            spriteComponent.sprite = sprite;
+            spriteComponent.offsetY = -2.4f;
+            // in front of the player and the explosions, as it has always been
+            spriteComponent.layer = RenderQueue.GROUND;
+            ground.add(spriteComponent);
+        }
         body.setUserData(ground);
+        engine.addEntity(ground);
         
         return ground;
     }
 
-    public static Asteroid createAsteroid(PlayScreen playScreen, float x, float y, String color, int size) {
-        size = MathUtils.clamp(size, 1, 6);
-        float asteroid_size = MathUtils.clamp(size, 2, 6) / 2f;
-        color = color.toLowerCase().startsWith("r") ? "r" : "b";
-        World world = instance.world;
-        AssetManager assetManager = instance.assetManager;
-        TextureAtlas textureAtlas = assetManager.get("images/actors.pack", TextureAtlas.class);
-        TextureRegion textureRegion = textureAtlas.findRegion("asteroid_" + color + size);
-
+    /**
+     * Creates the body of an asteroid, AsteroidField keeps its state and pools it.
+     */
+    public static Body createAsteroidBody(float x, float y, float size, float angularVelocity) {
         BodyDef bodyDef = new BodyDef();
         bodyDef.type = BodyType.DynamicBody;
         bodyDef.position.set(x, y);
         bodyDef.gravityScale = 0;
-        bodyDef.angularVelocity = (MathUtils.random(60f) - 30f) * MathUtils.degRad;
+        bodyDef.angularVelocity = angularVelocity;
 
-        Body body = world.createBody(bodyDef);
+        Body body = instance.world.createBody(bodyDef);
 
         CircleShape shape = new CircleShape();
-        shape.setRadius(asteroid_size / 3f);
+        shape.setRadius(size / 3f);
 
         FixtureDef fixtureDef = new FixtureDef();
         fixtureDef.shape = shape;
@@ -93,17 +196,41 @@ public class ActorBuilder {
         body.createFixture(fixtureDef);
 
         shape.dispose();
-
-        Asteroid asteroid = new Asteroid(playScreen, body, textureRegion, asteroid_size, asteroid_size);
-        body.setUserData(asteroid);
-        return asteroid;
+        return body;
+    }
+    
+    /**
+     * The asteroid regions by [color][size], looked up by name once per atlas, a reloaded atlas is looked up again.
+     */
+    public static TextureRegion[][] getAsteroidRegions() {
+        TextureAtlas textureAtlas = instance.assetManager.get("images/actors.pack", TextureAtlas.class);
+        if (textureAtlas != instance.asteroidAtlas) {
+            instance.asteroidAtlas = textureAtlas;
+            TextureRegion[][] regions = instance.asteroidRegions;
+            for (int c = 0; c < regions.length; c++) {
+                for (int s = 1; s < regions[c].length; s++) {
+                    regions[c][s] = textureAtlas.findRegion("asteroid_" + (c == LevelLayout.RED ? "r" : "b") + s);
+                }
+            }
+        }
+        return instance.asteroidRegions;
     }
 
-    public static Player createPlayer(PlayScreen playScreen, float x, float y) {
+    /**
+     * Adds the player's entity to the simulation's engine and returns the Player that flies it,
+     * the sprites are only created when there is an AssetManager.
+     */
+    public static Player createPlayer(GameSimulation simulation, float x, float y) {
         World world = instance.world;
+        PooledEngine engine = simulation.getEngine();
         AssetManager assetManager = instance.assetManager;
-        TextureAtlas textureAtlas = assetManager.get("images/actors.pack", TextureAtlas.class);
-        TextureRegion spaceShipTextureRegion = textureAtlas.findRegion("SpaceShip");
+        Sprite spaceShipSprite = null;
+        Sprite flameSprite = null;
+        if (assetManager != null) {
+            TextureAtlas textureAtlas = assetManager.get("images/actors.pack", TextureAtlas.class);
+            spaceShipSprite = new Sprite(textureAtlas.findRegion("SpaceShip"));
+            flameSprite = new Sprite(textureAtlas.findRegion("Flame"));
+        }
 
         BodyDef bodyDef = new BodyDef();
         bodyDef.type = BodyType.DynamicBody;
@@ -112,16 +239,8 @@ public class ActorBuilder {
         
         Body body = world.createBody(bodyDef);
         
-        float width = 64f / GM.PPM;
-        float height = 64f / GM.PPM;
-        
         PolygonShape shape = new PolygonShape();
-        shape.set(new float[] {
-                -width / 2, -height / 2,
-                width / 2, -height / 2,
-                width / 4, height / 2,
-                -width / 4, height / 2
-        });
+        shape.set(PLAYER_VERTICES);
         FixtureDef fixtureDef = new FixtureDef();
         fixtureDef.shape = shape;
         fixtureDef.density = 4.8f;
@@ -132,43 +251,72 @@ public class ActorBuilder {
         body.createFixture(fixtureDef);
         shape.dispose();
         
-        Player player = new Player(playScreen, body, spaceShipTextureRegion, width ,height);
+        Entity entity = engine.createEntity();
+        TransformComponent transform = engine.createComponent(TransformComponent.class);
+        transform.set(x, y, 0);
+        transform.width = PLAYER_WIDTH;
+        transform.height = PLAYER_HEIGHT;
+        entity.add(transform);
+        BodyComponent bodyComponent = engine.createComponent(BodyComponent.class);
+        bodyComponent.body = body;
+        entity.add(bodyComponent);
+        DamageComponent damage = engine.createComponent(DamageComponent.class);
+        damage.maxHp = PLAYER_MAX_HP;
+        entity.add(damage);
+        if (spaceShipSprite != null) {
+            SpriteComponent spriteComponent = engine.createComponent(SpriteComponent.class);
+            spriteComponent.sprite = spaceShipSprite;
+            entity.add(spriteComponent);
+        }
+        engine.addEntity(entity);
+        
+        Player player = new Player(simulation, entity, flameSprite);
         body.setUserData(player);
         
         return player;
     }
     
-    public static ParticleEffect createExplodeEffect(float x, float y, Array<ParticleEffect> particleEffects) {
-        ParticleEffect effect = GM.getAssetManager().get("particles/explode.particle", ParticleEffect.class);
-        effect.setPosition(x, y);
-        effect.reset();
-        if (particleEffects != null) {
-            particleEffects.add(effect);
-        }
-        return effect;
+    /**
+     * Adds an entity with the player's explosion that the RemovalSystem removes once the effect is over.
+     */
+    public static Entity createExplodeEffect(PooledEngine engine, float x, float y) {
+        return createEffect(engine, instance.explodeEffectPool, x, y);
     }
 
-    public static ParticleEffect createAsteroidExplodeEffect(float x, float y, Array<ParticleEffect> particleEffects, int size) {
-        ParticleEffect effect;
+    /**
+     * Adds an entity with an asteroid explosion for the asteroid size, see createExplodeEffect.
+     */
+    public static Entity createAsteroidExplodeEffect(PooledEngine engine, float x, float y, int size) {
+        EffectPool pool;
 
         switch(size) {
             case 1:
-                effect = GM.getAssetManager().get("particles/asteroid_explode_small.particle", ParticleEffect.class);
+                pool = instance.asteroidExplodeSmallEffectPool;
                 break;
             case 2:
-                effect = GM.getAssetManager().get("particles/asteroid_explode_medium.particle", ParticleEffect.class);
+                pool = instance.asteroidExplodeMediumEffectPool;
                 break;
             case 3:
             default:
-                effect = GM.getAssetManager().get("particles/asteroid_explode.particle", ParticleEffect.class);
+                pool = instance.asteroidExplodeEffectPool;
                 break;
         }
 
+        return createEffect(engine, pool, x, y);
+    }
+
+    private static Entity createEffect(PooledEngine engine, EffectPool pool, float x, float y) {
+        PooledEffect effect = pool.obtain();
         effect.setPosition(x, y);
-        effect.reset();
-        if (particleEffects != null) {
-            particleEffects.add(effect);
-        }
-        return effect;
+
+        Entity entity = engine.createEntity();
+        EffectComponent effectComponent = engine.createComponent(EffectComponent.class);
+        effectComponent.effect = effect;
+        entity.add(effectComponent);
+        LifetimeComponent lifetime = engine.createComponent(LifetimeComponent.class);
+        lifetime.remaining = pool.getLifetime();
+        entity.add(lifetime);
+        engine.addEntity(entity);
+        return entity;
     }
 }
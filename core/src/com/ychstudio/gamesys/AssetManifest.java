@@ -0,0 +1,68 @@
+package com.ychstudio.gamesys;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * The assets a screen needs.
+ * load() and unload() take and give back one AssetManager reference per asset,
+ * so an asset shared by several manifests stays loaded until the last of them is unloaded.
+ */
+public class AssetManifest {
+
+    private final String name;
+    private final Array<AssetDescriptor<?>> assets;
+
+    public AssetManifest(String name) {
+        this.name = name;
+        assets = new Array<>();
+    }
+
+    public <T> AssetManifest add(String fileName, Class<T> type) {
+        assets.add(new AssetDescriptor<>(fileName, type));
+        return this;
+    }
+
+    /**
+     * Queues the assets, they are loaded by AssetManager.update() or finishLoading(AssetManager).
+     */
+    public void load(AssetManager assetManager) {
+        for (int i = 0; i < assets.size; i++) {
+            assetManager.load(assets.get(i));
+        }
+    }
+
+    public void unload(AssetManager assetManager) {
+        for (int i = 0; i < assets.size; i++) {
+            assetManager.unload(assets.get(i).fileName);
+        }
+    }
+
+    public boolean isLoaded(AssetManager assetManager) {
+        for (int i = 0; i < assets.size; i++) {
+            AssetDescriptor<?> asset = assets.get(i);
+            if (!assetManager.isLoaded(asset.fileName, asset.type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Blocks until the queued assets of this manifest are loaded.
+     */
+    public void finishLoading(AssetManager assetManager) {
+        for (int i = 0; i < assets.size; i++) {
+            assetManager.finishLoadingAsset(assets.get(i).fileName);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Array<AssetDescriptor<?>> getAssets() {
+        return assets;
+    }
+}
@@ -0,0 +1,102 @@
+package com.ychstudio.gamesys;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEmitter;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectSet;
+
+/**
+ * Logs the assets resident in an AssetManager with their reference counts and estimated sizes.
+ * VRAM is width * height * bytes per pixel of the textures. Heap is the file size for
+ * assets whose decoded size is unknown (sounds, particle and atlas files), music is streamed and counts as 0.
+ * Atlas pages are separate Texture assets, so atlases themselves have no VRAM.
+ */
+public class AssetReport {
+
+    private static final String TAG = "AssetReport";
+
+    private AssetReport() {
+    }
+
+    public static void log(AssetManager assetManager) {
+        Array<String> names = assetManager.getAssetNames();
+        names.sort();
+
+        long totalVram = 0;
+        long totalHeap = 0;
+        ObjectSet<Texture> counted = new ObjectSet<>();
+
+        Gdx.app.log(TAG, names.size + " resident assets (refs, vram KB, heap KB, name)");
+        for (String name : names) {
+            Class<?> type = assetManager.getAssetType(name);
+            Object asset = assetManager.get(name, type);
+
+            long vram = 0;
+            long heap = 0;
+            if (asset instanceof Texture) {
+                vram = textureBytes((Texture) asset);
+                counted.add((Texture) asset);
+            }
+            else if (asset instanceof ParticleEffect) {
+                // the effect loads its own images unless it was given an atlas
+                for (ParticleEmitter emitter : ((ParticleEffect) asset).getEmitters()) {
+                    Sprite sprite = emitter.getSprite();
+                    if (sprite != null && counted.add(sprite.getTexture())) {
+                        vram += textureBytes(sprite.getTexture());
+                    }
+                }
+                heap = fileLength(assetManager, name);
+            }
+            else if (!(asset instanceof Music)) {
+                heap = fileLength(assetManager, name);
+            }
+
+            totalVram += vram;
+            totalHeap += heap;
+            Gdx.app.log(TAG, String.format("%3d %8d %8d  %s (%s)", assetManager.getReferenceCount(name),
+                    vram / 1024, heap / 1024, name, type.getSimpleName()));
+        }
+        Gdx.app.log(TAG, String.format("total: vram %d KB, heap %d KB", totalVram / 1024, totalHeap / 1024));
+    }
+
+    public static long textureBytes(Texture texture) {
+        TextureData data = texture.getTextureData();
+        long bytes = (long) texture.getWidth() * texture.getHeight() * bytesPerPixel(data.getFormat());
+        if (data.useMipMaps()) {
+            bytes = bytes * 4 / 3;
+        }
+        return bytes;
+    }
+
+    private static int bytesPerPixel(Pixmap.Format format) {
+        if (format == null) {
+            return 4;
+        }
+        switch (format) {
+            case Alpha:
+            case Intensity:
+                return 1;
+            case LuminanceAlpha:
+            case RGB565:
+            case RGBA4444:
+                return 2;
+            case RGB888:
+                return 3;
+            default:
+                return 4;
+        }
+    }
+
+    private static long fileLength(AssetManager assetManager, String name) {
+        FileHandle file = assetManager.getFileHandleResolver().resolve(name);
+        return file.exists() ? file.length() : 0;
+    }
+}
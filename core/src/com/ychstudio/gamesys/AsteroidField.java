@@ -0,0 +1,514 @@
+package com.ychstudio.gamesys;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.ychstudio.actors.Player;
+
+/**
+ * The live asteroids of a flight in parallel arrays, slots [0, size) are in use.
+ * Every slot has a Box2D body; the body's user data is a BodyData that tells the contact handlers which slot it is.
+ * Exploded asteroids are removed at the end of the step by sweep() and stay destroyed for the rest of the flight,
+ * their layout index is remembered so a chunk that is activated again leaves them out.
+ * In analytic mode the asteroids have no bodies: they only spin, and hitPlayer() tests the ones in the player's
+ * AsteroidGrid cells against the player's hull, so Box2D only simulates the player and the ground.
+ */
+public class AsteroidField {
+
+    /** Half the size of the largest asteroid, how far a sprite can reach beyond its y. */
+    public static final float MAX_HALF_SIZE = 1.5f;
+    /** The radius of the largest asteroid's circle. */
+    public static final float MAX_RADIUS = 1f;
+    /** The skin Box2D keeps around polygons, added to the radius in the analytic test. */
+    private static final float POLYGON_RADIUS = 0.01f;
+
+    /**
+     * The user data of an asteroid body.
+     */
+    public static class BodyData {
+        public final AsteroidField field;
+        int slot;
+
+        BodyData(AsteroidField field) {
+            this.field = field;
+        }
+
+        public int getSlot() {
+            return slot;
+        }
+    }
+
+    private final GameSimulation simulation;
+
+    private int size;
+    private Body[] bodies;
+    private float[] xs;
+    private float[] ys;
+    private float[] angles; // in radians
+    private float[] angularVelocities;
+    private float[] previousXs;
+    private float[] previousYs;
+    private float[] previousAngles;
+    private float[] sizes; // width and height, also the damage done to the player
+    private byte[] regionSizes; // 1 to 6, the size in the atlas region name
+    private byte[] colors;
+    private boolean[] alive;
+    private int[] layoutIndices;
+
+    private boolean[] destroyed; // by layout index
+    private int[] slots; // by layout index, -1 if not in the field
+    private boolean analytic;
+    private final AsteroidGrid grid = new AsteroidGrid();
+    private final float[] hullNormals;
+    private Body[] freeBodies;
+    private int freeCount;
+
+    public AsteroidField(GameSimulation simulation, int capacity) {
+        this.simulation = simulation;
+        allocate(Math.max(capacity, 16));
+        freeBodies = new Body[bodies.length];
+        destroyed = new boolean[0];
+        slots = new int[0];
+
+        float[] hull = ActorBuilder.PLAYER_VERTICES;
+        hullNormals = new float[hull.length];
+        for (int i = 0; i < hull.length; i += 2) {
+            int j = (i + 2) % hull.length;
+            float nx = hull[j + 1] - hull[i + 1];
+            float ny = hull[i] - hull[j];
+            float length = (float) Math.sqrt(nx * nx + ny * ny);
+            hullNormals[i] = nx / length;
+            hullNormals[i + 1] = ny / length;
+        }
+    }
+
+    private void allocate(int capacity) {
+        Body[] oldBodies = bodies;
+        float[] oldXs = xs, oldYs = ys, oldAngles = angles, oldAngularVelocities = angularVelocities;
+        float[] oldPreviousXs = previousXs, oldPreviousYs = previousYs, oldPreviousAngles = previousAngles;
+        float[] oldSizes = sizes;
+        byte[] oldRegionSizes = regionSizes, oldColors = colors;
+        boolean[] oldAlive = alive;
+        int[] oldLayoutIndices = layoutIndices;
+
+        bodies = new Body[capacity];
+        xs = new float[capacity];
+        ys = new float[capacity];
+        angles = new float[capacity];
+        angularVelocities = new float[capacity];
+        previousXs = new float[capacity];
+        previousYs = new float[capacity];
+        previousAngles = new float[capacity];
+        sizes = new float[capacity];
+        regionSizes = new byte[capacity];
+        colors = new byte[capacity];
+        alive = new boolean[capacity];
+        layoutIndices = new int[capacity];
+
+        if (oldBodies != null) {
+            System.arraycopy(oldBodies, 0, bodies, 0, size);
+            System.arraycopy(oldXs, 0, xs, 0, size);
+            System.arraycopy(oldYs, 0, ys, 0, size);
+            System.arraycopy(oldAngles, 0, angles, 0, size);
+            System.arraycopy(oldAngularVelocities, 0, angularVelocities, 0, size);
+            System.arraycopy(oldPreviousXs, 0, previousXs, 0, size);
+            System.arraycopy(oldPreviousYs, 0, previousYs, 0, size);
+            System.arraycopy(oldPreviousAngles, 0, previousAngles, 0, size);
+            System.arraycopy(oldSizes, 0, sizes, 0, size);
+            System.arraycopy(oldRegionSizes, 0, regionSizes, 0, size);
+            System.arraycopy(oldColors, 0, colors, 0, size);
+            System.arraycopy(oldAlive, 0, alive, 0, size);
+            System.arraycopy(oldLayoutIndices, 0, layoutIndices, 0, size);
+        }
+    }
+
+    /**
+     * Switches between asteroids with Box2D bodies and analytic asteroids. The field must be empty.
+     */
+    public void setAnalytic(boolean analytic) {
+        this.analytic = analytic;
+    }
+
+    public boolean isAnalytic() {
+        return analytic;
+    }
+
+    /**
+     * Starts a flight of the layout with none of its asteroids destroyed. The field must be empty.
+     */
+    public void setLayout(LevelLayout layout) {
+        int count = layout.getCount();
+        if (destroyed.length < count) {
+            destroyed = new boolean[count];
+            slots = new int[count];
+        }
+        for (int i = 0; i < count; i++) {
+            destroyed[i] = false;
+            slots[i] = -1;
+        }
+        if (analytic) {
+            grid.set(layout);
+        }
+    }
+
+    public boolean isDestroyed(int layoutIndex) {
+        return destroyed[layoutIndex];
+    }
+
+    /**
+     * Puts an asteroid into play, on a pooled body if there is one, or without a body in analytic mode.
+     * @param color LevelLayout.RED or LevelLayout.BLUE
+     * @param regionSize 1 to 6
+     * @return the slot of the asteroid, valid until the next remove or sweep
+     */
+    public int add(int layoutIndex, float x, float y, int color, int regionSize, float angularVelocity) {
+        regionSize = MathUtils.clamp(regionSize, 1, 6);
+        float asteroidSize = Math.max(regionSize, 2) / 2f;
+
+        Body body;
+        if (analytic) {
+            body = null;
+        }
+        else if (freeCount > 0) {
+            body = freeBodies[--freeCount];
+            freeBodies[freeCount] = null;
+            Fixture fixture = body.getFixtureList().get(0);
+            fixture.getShape().setRadius(asteroidSize / 3f);
+            body.setTransform(x, y, 0);
+            body.setLinearVelocity(0, 0);
+            body.setAngularVelocity(angularVelocity);
+            body.setActive(true);
+            body.resetMassData();
+        }
+        else {
+            body = ActorBuilder.createAsteroidBody(x, y, asteroidSize, angularVelocity);
+            body.setUserData(new BodyData(this));
+        }
+
+        if (size == bodies.length) {
+            allocate(size * 2);
+        }
+        int i = size++;
+        bodies[i] = body;
+        if (body != null) {
+            ((BodyData) body.getUserData()).slot = i;
+        }
+        xs[i] = x;
+        ys[i] = y;
+        angles[i] = 0;
+        angularVelocities[i] = angularVelocity;
+        previousXs[i] = x;
+        previousYs[i] = y;
+        previousAngles[i] = 0;
+        sizes[i] = asteroidSize;
+        regionSizes[i] = (byte) regionSize;
+        colors[i] = (byte) color;
+        alive[i] = true;
+        layoutIndices[i] = layoutIndex;
+        slots[layoutIndex] = i;
+        return i;
+    }
+
+    /**
+     * Takes the asteroid out of play and keeps its body for the next add, the last slot moves into its place.
+     * Must not be called while the world is stepping.
+     */
+    public void remove(int slot) {
+        Body body = bodies[slot];
+        if (body != null) {
+            body.setActive(false);
+            if (freeCount == freeBodies.length) {
+                Body[] newFreeBodies = new Body[freeBodies.length * 2];
+                System.arraycopy(freeBodies, 0, newFreeBodies, 0, freeCount);
+                freeBodies = newFreeBodies;
+            }
+            freeBodies[freeCount++] = body;
+        }
+        slots[layoutIndices[slot]] = -1;
+
+        int last = --size;
+        if (slot != last) {
+            bodies[slot] = bodies[last];
+            if (bodies[slot] != null) {
+                ((BodyData) bodies[slot].getUserData()).slot = slot;
+            }
+            xs[slot] = xs[last];
+            ys[slot] = ys[last];
+            angles[slot] = angles[last];
+            angularVelocities[slot] = angularVelocities[last];
+            previousXs[slot] = previousXs[last];
+            previousYs[slot] = previousYs[last];
+            previousAngles[slot] = previousAngles[last];
+            sizes[slot] = sizes[last];
+            regionSizes[slot] = regionSizes[last];
+            colors[slot] = colors[last];
+            alive[slot] = alive[last];
+            layoutIndices[slot] = layoutIndices[last];
+            slots[layoutIndices[slot]] = slot;
+        }
+        bodies[last] = null;
+    }
+
+    /**
+     * Removes the asteroids with a layout index in [start, end), used when their chunk is deactivated.
+     */
+    public void removeRange(int start, int end) {
+        for (int i = size - 1; i >= 0; i--) {
+            if (layoutIndices[i] >= start && layoutIndices[i] < end) {
+                remove(i);
+            }
+        }
+    }
+
+    /**
+     * Removes every asteroid, the bodies stay pooled.
+     */
+    public void clear() {
+        for (int i = size - 1; i >= 0; i--) {
+            remove(i);
+        }
+    }
+
+    /**
+     * Forgets the pooled bodies, which belong to a World that is about to be disposed. The field must be empty.
+     */
+    public void clearPool() {
+        for (int i = 0; i < freeCount; i++) {
+            freeBodies[i] = null;
+        }
+        freeCount = 0;
+    }
+
+    /**
+     * Creates inactive bodies until the pool holds count of them, so a flight that has no more than count asteroids
+     * in play at once does not create bodies while it is flown.
+     */
+    public void prewarmBodies(int count) {
+        if (freeBodies.length < count) {
+            Body[] newFreeBodies = new Body[count];
+            System.arraycopy(freeBodies, 0, newFreeBodies, 0, freeCount);
+            freeBodies = newFreeBodies;
+        }
+        while (freeCount < count) {
+            Body body = ActorBuilder.createAsteroidBody(0, 0, 1f, 0);
+            body.setUserData(new BodyData(this));
+            // the fixture creates its shape on the first call, make that call now rather than when the body is reused
+            body.getFixtureList().get(0).getShape();
+            body.setActive(false);
+            freeBodies[freeCount++] = body;
+        }
+    }
+
+    /**
+     * Marks the asteroid for removal at the end of the step and tells the event listener.
+     */
+    public void explode(int slot) {
+        alive[slot] = false;
+        simulation.getEventListener().asteroidExploded(xs[slot], ys[slot], sizes[slot]);
+    }
+
+    public void savePreviousState() {
+        System.arraycopy(xs, 0, previousXs, 0, size);
+        System.arraycopy(ys, 0, previousYs, 0, size);
+        System.arraycopy(angles, 0, previousAngles, 0, size);
+    }
+
+    /**
+     * Reads the state of every body after a physics step, or spins the analytic asteroids by one step.
+     */
+    public void update() {
+        if (analytic) {
+            for (int i = 0; i < size; i++) {
+                angles[i] += GameSimulation.TIME_STEP * angularVelocities[i];
+            }
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            Body body = bodies[i];
+            Vector2 position = body.getPosition();
+            xs[i] = position.x;
+            ys[i] = position.y;
+            angles[i] = body.getAngle();
+        }
+    }
+
+    /**
+     * Explodes the analytic asteroids that touch the player's hull and damages the player by their size,
+     * like the player-asteroid ContactHandler does for asteroid bodies. Only looks at the grid cells around the player.
+     * @return the number of asteroids hit
+     */
+    public int hitPlayer(Player player) {
+        if (!analytic || !player.isPlayerAlive()) {
+            return 0;
+        }
+        Vector2 position = player.getPosition();
+        float px = position.x;
+        float py = position.y;
+        float angle = player.getAngle();
+        float cos = (float) Math.cos(angle);
+        float sin = (float) Math.sin(angle);
+
+        // the hull's bounding box, grown by the largest asteroid
+        float[] hull = ActorBuilder.PLAYER_VERTICES;
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < hull.length; i += 2) {
+            float x = px + cos * hull[i] - sin * hull[i + 1];
+            float y = py + sin * hull[i] + cos * hull[i + 1];
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+        int firstColumn = grid.getColumn(minX - MAX_RADIUS);
+        int lastColumn = grid.getColumn(maxX + MAX_RADIUS);
+        int firstRow = grid.getRow(minY - MAX_RADIUS);
+        int lastRow = grid.getRow(maxY + MAX_RADIUS);
+
+        int hits = 0;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int end = grid.getCellEnd(column, row);
+                for (int k = grid.getCellStart(column, row); k < end; k++) {
+                    int slot = slots[grid.getItem(k)];
+                    if (slot < 0 || !alive[slot]) {
+                        continue;
+                    }
+                    // the asteroid's center in the hull's frame
+                    float dx = xs[slot] - px;
+                    float dy = ys[slot] - py;
+                    float lx = cos * dx + sin * dy;
+                    float ly = cos * dy - sin * dx;
+                    if (touchesHull(lx, ly, sizes[slot] / 3f + POLYGON_RADIUS)) {
+                        explode(slot);
+                        player.getDamaged(sizes[slot]);
+                        hits++;
+                    }
+                }
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Circle against the convex hull, both in the hull's frame.
+     */
+    private boolean touchesHull(float x, float y, float radius) {
+        float[] hull = ActorBuilder.PLAYER_VERTICES;
+        float separation = -Float.MAX_VALUE;
+        int edge = 0;
+        for (int i = 0; i < hull.length; i += 2) {
+            float s = hullNormals[i] * (x - hull[i]) + hullNormals[i + 1] * (y - hull[i + 1]);
+            if (s > radius) {
+                return false;
+            }
+            if (s > separation) {
+                separation = s;
+                edge = i;
+            }
+        }
+        if (separation <= 0) {
+            return true; // the center is inside
+        }
+
+        // closest to the edge or to one of its vertices
+        int next = (edge + 2) % hull.length;
+        float x1 = hull[edge], y1 = hull[edge + 1];
+        float x2 = hull[next], y2 = hull[next + 1];
+        if ((x - x1) * (x2 - x1) + (y - y1) * (y2 - y1) <= 0) {
+            return (x - x1) * (x - x1) + (y - y1) * (y - y1) <= radius * radius;
+        }
+        if ((x - x2) * (x1 - x2) + (y - y2) * (y1 - y2) <= 0) {
+            return (x - x2) * (x - x2) + (y - y2) * (y - y2) <= radius * radius;
+        }
+        return true;
+    }
+
+    /**
+     * Removes the asteroids that exploded during the step, they do not come back with their chunk.
+     */
+    public void sweep() {
+        for (int i = size - 1; i >= 0; i--) {
+            if (!alive[i]) {
+                destroyed[layoutIndices[i]] = true;
+                remove(i);
+            }
+        }
+    }
+
+    /**
+     * Queues the asteroids between viewBottom and viewTop on the ACTORS layer,
+     * between their previous and current physics state.
+     * @param alpha 0 for the previous state, 1 for the current state
+     */
+    public void render(RenderQueue queue, float alpha, float viewBottom, float viewTop) {
+        TextureRegion[][] regions = ActorBuilder.getAsteroidRegions();
+        for (int i = 0; i < size; i++) {
+            float y = previousYs[i] + (ys[i] - previousYs[i]) * alpha;
+            float halfSize = sizes[i] / 2f;
+            if (y + halfSize < viewBottom || y - halfSize > viewTop) {
+                continue;
+            }
+            float x = previousXs[i] + (xs[i] - previousXs[i]) * alpha;
+            float rotation = (previousAngles[i] + (angles[i] - previousAngles[i]) * alpha) * MathUtils.radiansToDegrees;
+            queue.submit(RenderQueue.ACTORS, regions[colors[i]][regionSizes[i]], x - halfSize, y - halfSize, halfSize, halfSize,
+                    sizes[i], sizes[i], rotation);
+        }
+    }
+
+    /**
+     * Writes the asteroids between viewBottom and viewTop as AsteroidRenderer instances,
+     * interpolated like render: x, y, angle, size and region index color * 6 + size - 1.
+     * @param instances room for getSize() asteroids
+     * @return the number of asteroids written
+     */
+    public int writeInstances(float[] instances, float alpha, float viewBottom, float viewTop) {
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            float y = previousYs[i] + (ys[i] - previousYs[i]) * alpha;
+            float halfSize = sizes[i] / 2f;
+            if (y + halfSize < viewBottom || y - halfSize > viewTop) {
+                continue;
+            }
+            instances[n] = previousXs[i] + (xs[i] - previousXs[i]) * alpha;
+            instances[n + 1] = y;
+            instances[n + 2] = previousAngles[i] + (angles[i] - previousAngles[i]) * alpha;
+            instances[n + 3] = sizes[i];
+            instances[n + 4] = colors[i] * 6 + regionSizes[i] - 1;
+            n += AsteroidRenderer.INSTANCE_FLOATS;
+        }
+        return n / AsteroidRenderer.INSTANCE_FLOATS;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public float getX(int slot) {
+        return xs[slot];
+    }
+
+    public float getY(int slot) {
+        return ys[slot];
+    }
+
+    public float getAngle(int slot) {
+        return angles[slot];
+    }
+
+    public float getAsteroidSize(int slot) {
+        return sizes[slot];
+    }
+
+    public boolean isAlive(int slot) {
+        return alive[slot];
+    }
+
+    /**
+     * @return the asteroid's body, null in analytic mode
+     */
+    public Body getBody(int slot) {
+        return bodies[slot];
+    }
+}
@@ -0,0 +1,110 @@
+package com.ychstudio.gamesys;
+
+import com.badlogic.gdx.math.MathUtils;
+
+/**
+ * The asteroids of a LevelLayout by layout index in a uniform grid of CELL_SIZE cells, keyed by their centers,
+ * to find the asteroids near the player without Box2D.
+ * A layout never changes, so the grid is built once per layout; which asteroids are in play is up to the AsteroidField.
+ */
+public class AsteroidGrid {
+
+    public static final float CELL_SIZE = 2f;
+
+    private LevelLayout layout;
+    private int columns;
+    private int rows;
+    private float minY;
+    private int[] cellStarts = new int[1]; // cell c holds items cellStarts[c] to cellStarts[c + 1]
+    private int[] items = new int[0];
+
+    /**
+     * Sorts the asteroids of the layout into their cells, does nothing if the grid already holds the layout.
+     */
+    public void set(LevelLayout layout) {
+        if (layout == this.layout) {
+            return;
+        }
+        this.layout = layout;
+        int count = layout.getCount();
+
+        minY = Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            minY = Math.min(minY, layout.ys[i]);
+            maxY = Math.max(maxY, layout.ys[i]);
+        }
+        if (count == 0) {
+            minY = maxY = 0;
+        }
+        columns = MathUtils.ceil(GameSimulation.WIDTH / CELL_SIZE);
+        rows = (int) ((maxY - minY) / CELL_SIZE) + 1;
+
+        int cells = columns * rows;
+        if (cellStarts.length < cells + 1) {
+            cellStarts = new int[cells + 1];
+        }
+        if (items.length < count) {
+            items = new int[count];
+        }
+
+        // counting sort: count per cell, turn the counts into starts, then place every asteroid
+        for (int c = 0; c <= cells; c++) {
+            cellStarts[c] = 0;
+        }
+        for (int i = 0; i < count; i++) {
+            cellStarts[cell(layout.xs[i], layout.ys[i]) + 1]++;
+        }
+        for (int c = 0; c < cells; c++) {
+            cellStarts[c + 1] += cellStarts[c];
+        }
+        for (int i = 0; i < count; i++) {
+            int c = cell(layout.xs[i], layout.ys[i]);
+            items[cellStarts[c]++] = i;
+        }
+        // every start was moved to the next cell's start
+        for (int c = cells; c > 0; c--) {
+            cellStarts[c] = cellStarts[c - 1];
+        }
+        cellStarts[0] = 0;
+    }
+
+    private int cell(float x, float y) {
+        return getRow(y) * columns + getColumn(x);
+    }
+
+    /**
+     * @return the column of x, clamped to the grid
+     */
+    public int getColumn(float x) {
+        return MathUtils.clamp((int) (x / CELL_SIZE), 0, columns - 1);
+    }
+
+    /**
+     * @return the row of y, clamped to the grid
+     */
+    public int getRow(float y) {
+        return MathUtils.clamp((int) ((y - minY) / CELL_SIZE), 0, rows - 1);
+    }
+
+    /**
+     * @return the index of the cell's first item
+     */
+    public int getCellStart(int column, int row) {
+        return cellStarts[row * columns + column];
+    }
+
+    /**
+     * @return the index after the cell's last item
+     */
+    public int getCellEnd(int column, int row) {
+        return cellStarts[row * columns + column + 1];
+    }
+
+    /**
+     * @return the layout index of an asteroid
+     */
+    public int getItem(int index) {
+        return items[index];
+    }
+}
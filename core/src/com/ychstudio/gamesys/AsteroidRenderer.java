@@ -0,0 +1,216 @@
+package com.ychstudio.gamesys;
+
+import java.nio.FloatBuffer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Draws the asteroids of an AsteroidField in one instanced draw call.
+ * Every asteroid is a record of x, y, angle, size and region index in a dynamic vertex buffer,
+ * the vertex shader rotates and scales a unit quad with it and looks the texture coordinates up in a uniform array.
+ * The asteroid regions must be on one atlas page and not rotated.
+ * Needs instancing from the backend, see setInstancing(); without it AsteroidField.render queues them as quads.
+ */
+public class AsteroidRenderer implements Disposable {
+
+    /** Floats per asteroid: x, y, angle, size, region index. */
+    public static final int INSTANCE_FLOATS = 5;
+    public static final int REGIONS = 12; // 2 colors, 6 sizes
+
+    /**
+     * The GL 3.3 / GLES 3 calls that GL20 does not have.
+     */
+    public interface Instancing {
+        boolean isSupported();
+
+        void vertexAttribDivisor(int index, int divisor);
+
+        void drawArraysInstanced(int mode, int first, int count, int instanceCount);
+    }
+
+    private static final String VERTEX_SHADER = ""
+            + "attribute vec2 a_corner;\n"
+            + "attribute vec4 a_instance;\n" // x, y, angle, size
+            + "attribute float a_region;\n"
+            + "uniform mat4 u_projTrans;\n"
+            + "uniform vec4 u_regions[" + REGIONS + "];\n" // u, v, u2, v2
+            + "varying vec2 v_texCoords;\n"
+            + "void main() {\n"
+            + "    float c = cos(a_instance.z);\n"
+            + "    float s = sin(a_instance.z);\n"
+            + "    vec2 p = a_corner * a_instance.w;\n"
+            + "    vec2 position = vec2(p.x * c - p.y * s, p.x * s + p.y * c) + a_instance.xy;\n"
+            + "    vec4 region = u_regions[int(a_region + 0.5)];\n"
+            + "    vec2 t = a_corner + 0.5;\n"
+            + "    v_texCoords = vec2(mix(region.x, region.z, t.x), mix(region.w, region.y, t.y));\n"
+            + "    gl_Position = u_projTrans * vec4(position, 0.0, 1.0);\n"
+            + "}\n";
+
+    private static final String FRAGMENT_SHADER = ""
+            + "#ifdef GL_ES\n"
+            + "precision mediump float;\n"
+            + "#endif\n"
+            + "varying vec2 v_texCoords;\n"
+            + "uniform sampler2D u_texture;\n"
+            + "void main() {\n"
+            + "    gl_FragColor = texture2D(u_texture, v_texCoords);\n"
+            + "}\n";
+
+    private static Instancing instancing;
+
+    private final ShaderProgram shader;
+    private final int cornerLocation;
+    private final int instanceLocation;
+    private final int regionLocation;
+    private final int quadBuffer;
+    private final int instanceBuffer;
+
+    private float[] instances;
+    private FloatBuffer instanceData;
+    private final float[] regionUniform = new float[REGIONS * 4];
+
+    /**
+     * Sets the instancing calls of the backend, must be called before the first AsteroidRenderer is created.
+     * Without it GL30 is used when the backend created a GL 3 context.
+     */
+    public static void setInstancing(Instancing instancing) {
+        AsteroidRenderer.instancing = instancing;
+    }
+
+    /**
+     * @return true if an AsteroidRenderer can be created, needs a GL context
+     */
+    public static boolean isSupported() {
+        if (instancing == null && Gdx.gl30 != null) {
+            instancing = new Instancing() {
+                @Override
+                public boolean isSupported() {
+                    return true;
+                }
+
+                @Override
+                public void vertexAttribDivisor(int index, int divisor) {
+                    Gdx.gl30.glVertexAttribDivisor(index, divisor);
+                }
+
+                @Override
+                public void drawArraysInstanced(int mode, int first, int count, int instanceCount) {
+                    Gdx.gl30.glDrawArraysInstanced(mode, first, count, instanceCount);
+                }
+            };
+        }
+        return instancing != null && instancing.isSupported();
+    }
+
+    public AsteroidRenderer() {
+        if (!isSupported()) {
+            throw new GdxRuntimeException("Instanced drawing is not supported");
+        }
+        shader = new ShaderProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        if (!shader.isCompiled()) {
+            throw new GdxRuntimeException("Error compiling asteroid shader: " + shader.getLog());
+        }
+        cornerLocation = shader.getAttributeLocation("a_corner");
+        instanceLocation = shader.getAttributeLocation("a_instance");
+        regionLocation = shader.getAttributeLocation("a_region");
+
+        // a unit quad around the center as a triangle strip
+        FloatBuffer corners = BufferUtils.newFloatBuffer(8);
+        corners.put(new float[] { -0.5f, -0.5f, 0.5f, -0.5f, -0.5f, 0.5f, 0.5f, 0.5f });
+        corners.flip();
+        quadBuffer = Gdx.gl.glGenBuffer();
+        Gdx.gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, quadBuffer);
+        Gdx.gl.glBufferData(GL20.GL_ARRAY_BUFFER, 8 * 4, corners, GL20.GL_STATIC_DRAW);
+
+        instanceBuffer = Gdx.gl.glGenBuffer();
+        Gdx.gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, 0);
+
+        allocate(256);
+    }
+
+    private void allocate(int capacity) {
+        instances = new float[capacity * INSTANCE_FLOATS];
+        instanceData = BufferUtils.newFloatBuffer(capacity * INSTANCE_FLOATS);
+    }
+
+    /**
+     * Draws the asteroids between viewBottom and viewTop, must not be called between SpriteBatch begin and end.
+     * @return the number of asteroids drawn
+     */
+    public int render(Matrix4 projection, AsteroidField field, float alpha, float viewBottom, float viewTop) {
+        int capacity = instances.length / INSTANCE_FLOATS;
+        if (field.getSize() > capacity) {
+            allocate(Math.max(field.getSize(), capacity * 2));
+        }
+        int count = field.writeInstances(instances, alpha, viewBottom, viewTop);
+        if (count == 0) {
+            return 0;
+        }
+
+        TextureRegion[][] regions = ActorBuilder.getAsteroidRegions();
+        Texture texture = regions[LevelLayout.RED][1].getTexture();
+        for (int color = 0; color < 2; color++) {
+            for (int size = 1; size <= 6; size++) {
+                TextureRegion region = regions[color][size];
+                int i = (color * 6 + size - 1) * 4;
+                regionUniform[i] = region.getU();
+                regionUniform[i + 1] = region.getV();
+                regionUniform[i + 2] = region.getU2();
+                regionUniform[i + 3] = region.getV2();
+            }
+        }
+
+        GL20 gl = Gdx.gl;
+        gl.glEnable(GL20.GL_BLEND);
+        gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        texture.bind(0);
+        shader.begin();
+        shader.setUniformMatrix("u_projTrans", projection);
+        shader.setUniformi("u_texture", 0);
+        shader.setUniform4fv("u_regions", regionUniform, 0, regionUniform.length);
+
+        gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, quadBuffer);
+        gl.glEnableVertexAttribArray(cornerLocation);
+        gl.glVertexAttribPointer(cornerLocation, 2, GL20.GL_FLOAT, false, 0, 0);
+
+        BufferUtils.copy(instances, instanceData, count * INSTANCE_FLOATS, 0);
+        gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, instanceBuffer);
+        // a new store every frame, so the driver does not wait for the previous frame's draw
+        gl.glBufferData(GL20.GL_ARRAY_BUFFER, count * INSTANCE_FLOATS * 4, instanceData, GL20.GL_STREAM_DRAW);
+        int stride = INSTANCE_FLOATS * 4;
+        gl.glEnableVertexAttribArray(instanceLocation);
+        gl.glVertexAttribPointer(instanceLocation, 4, GL20.GL_FLOAT, false, stride, 0);
+        gl.glEnableVertexAttribArray(regionLocation);
+        gl.glVertexAttribPointer(regionLocation, 1, GL20.GL_FLOAT, false, stride, 16);
+        instancing.vertexAttribDivisor(instanceLocation, 1);
+        instancing.vertexAttribDivisor(regionLocation, 1);
+
+        instancing.drawArraysInstanced(GL20.GL_TRIANGLE_STRIP, 0, 4, count);
+
+        // the SpriteBatch mesh may use the same attribute locations
+        instancing.vertexAttribDivisor(instanceLocation, 0);
+        instancing.vertexAttribDivisor(regionLocation, 0);
+        gl.glDisableVertexAttribArray(cornerLocation);
+        gl.glDisableVertexAttribArray(instanceLocation);
+        gl.glDisableVertexAttribArray(regionLocation);
+        gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, 0);
+        shader.end();
+        gl.glDisable(GL20.GL_BLEND);
+        return count;
+    }
+
+    @Override
+    public void dispose() {
+        shader.dispose();
+        Gdx.gl.glDeleteBuffer(quadBuffer);
+        Gdx.gl.glDeleteBuffer(instanceBuffer);
+    }
+}
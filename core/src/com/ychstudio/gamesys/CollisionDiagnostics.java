@@ -0,0 +1,134 @@
+package com.ychstudio.gamesys;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.physics.box2d.Contact;
+import com.badlogic.gdx.physics.box2d.ContactFilter;
+import com.badlogic.gdx.physics.box2d.Filter;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Counts the collision work per pair of CollisionLayers:
+ * broadphase candidates (fixtures whose boxes started to overlap), the pairs the filter turned into contacts,
+ * and the contacts alive and touching when sample() is called.
+ * Installed as the World's ContactFilter, which costs a callback per candidate, so it is only used for diagnostics.
+ * Layer index getCount() of the registry collects categories that are not a registered layer, such as 0.
+ */
+public class CollisionDiagnostics implements ContactFilter {
+
+    private static final String TAG = "CollisionDiagnostics";
+
+    private final CollisionLayers layers;
+    private final int rows;
+    private final long[] candidates;
+    private final long[] accepted;
+    private final long[] contacts;
+    private final long[] touching;
+    private int samples;
+
+    public CollisionDiagnostics(CollisionLayers layers) {
+        this.layers = layers;
+        rows = layers.getCount() + 1;
+        candidates = new long[rows * rows];
+        accepted = new long[rows * rows];
+        contacts = new long[rows * rows];
+        touching = new long[rows * rows];
+    }
+
+    public void install(World world) {
+        world.setContactFilter(this);
+    }
+
+    private int pairIndex(short categoryA, short categoryB) {
+        int a = layers.indexOf(categoryA);
+        int b = layers.indexOf(categoryB);
+        if (a < 0) {
+            a = rows - 1;
+        }
+        if (b < 0) {
+            b = rows - 1;
+        }
+        return Math.min(a, b) * rows + Math.max(a, b);
+    }
+
+    /**
+     * Box2D's default filter, with counting.
+     */
+    @Override
+    public boolean shouldCollide(Fixture fixtureA, Fixture fixtureB) {
+        Filter a = fixtureA.getFilterData();
+        Filter b = fixtureB.getFilterData();
+        int pair = pairIndex(a.categoryBits, b.categoryBits);
+        candidates[pair]++;
+
+        boolean collide;
+        if (a.groupIndex == b.groupIndex && a.groupIndex != 0) {
+            collide = a.groupIndex > 0;
+        }
+        else {
+            collide = (a.maskBits & b.categoryBits) != 0 && (a.categoryBits & b.maskBits) != 0;
+        }
+        if (collide) {
+            accepted[pair]++;
+        }
+        return collide;
+    }
+
+    /**
+     * Adds the contacts the World has right now to the contact counts.
+     */
+    public void sample(World world) {
+        Array<Contact> list = world.getContactList();
+        for (int i = 0; i < list.size; i++) {
+            Contact contact = list.get(i);
+            int pair = pairIndex(contact.getFixtureA().getFilterData().categoryBits,
+                    contact.getFixtureB().getFilterData().categoryBits);
+            contacts[pair]++;
+            if (contact.isTouching()) {
+                touching[pair]++;
+            }
+        }
+        samples++;
+    }
+
+    public long getCandidates(int layerA, int layerB) {
+        return candidates[Math.min(layerA, layerB) * rows + Math.max(layerA, layerB)];
+    }
+
+    public long getAccepted(int layerA, int layerB) {
+        return accepted[Math.min(layerA, layerB) * rows + Math.max(layerA, layerB)];
+    }
+
+    /**
+     * Logs every layer pair that had any candidates or contacts, contacts are averaged over the samples.
+     */
+    public void log() {
+        Gdx.app.log(TAG, "layer pair: broadphase candidates, contacts created, contacts / sample, touching / sample ("
+                + samples + " samples)");
+        for (int a = 0; a < rows; a++) {
+            for (int b = a; b < rows; b++) {
+                int pair = a * rows + b;
+                if (candidates[pair] == 0 && contacts[pair] == 0) {
+                    continue;
+                }
+                Gdx.app.log(TAG, String.format("%s-%s: %d, %d, %.2f, %.2f", name(a), name(b), candidates[pair], accepted[pair],
+                        samples > 0 ? (float) contacts[pair] / samples : 0f, samples > 0 ? (float) touching[pair] / samples : 0f));
+            }
+        }
+    }
+
+    private String name(int index) {
+        return index < layers.getCount() ? layers.getName(index) : "other";
+    }
+
+    public void reset() {
+        for (int i = 0; i < candidates.length; i++) {
+            candidates[i] = 0;
+            accepted[i] = 0;
+            contacts[i] = 0;
+            touching[i] = 0;
+        }
+        samples = 0;
+    }
+}
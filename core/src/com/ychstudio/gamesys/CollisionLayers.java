@@ -0,0 +1,83 @@
+package com.ychstudio.gamesys;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Gives every collision layer its own Box2D category bit and builds the masks from the layer pairs that collide,
+ * so a pair of layers either collides both ways or not at all.
+ */
+public class CollisionLayers {
+
+    public static final int MAX_LAYERS = 16;
+
+    private final String[] names = new String[MAX_LAYERS];
+    private final short[] masks = new short[MAX_LAYERS];
+    private int count;
+
+    /**
+     * @return the category bit of the new layer
+     */
+    public short register(String name) {
+        if (count == MAX_LAYERS) {
+            throw new GdxRuntimeException("Too many collision layers: " + name);
+        }
+        names[count] = name;
+        return (short) (1 << count++);
+    }
+
+    /**
+     * Lets the two layers collide with each other.
+     */
+    public CollisionLayers collide(short categoryA, short categoryB) {
+        int a = indexOf(categoryA);
+        int b = indexOf(categoryB);
+        masks[a] |= categoryB;
+        masks[b] |= categoryA;
+        return this;
+    }
+
+    public short getMask(short category) {
+        return masks[indexOf(category)];
+    }
+
+    /**
+     * @return the index of a registered layer's category, or -1 for 0 and values that are not a registered layer
+     */
+    public int indexOf(short category) {
+        int bits = category & 0xFFFF;
+        if (Integer.bitCount(bits) != 1) {
+            return -1;
+        }
+        int index = Integer.numberOfTrailingZeros(bits);
+        return index < count ? index : -1;
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Checks that every mask only has registered layers and that every pair collides both ways.
+     * @throws GdxRuntimeException describing the first problem found
+     */
+    public void validate() {
+        short registered = (short) ((1 << count) - 1);
+        for (int a = 0; a < count; a++) {
+            if ((masks[a] & ~registered) != 0) {
+                throw new GdxRuntimeException("Collision layer " + names[a] + " has unregistered mask bits: "
+                        + Integer.toBinaryString(masks[a] & 0xFFFF));
+            }
+            for (int b = 0; b < count; b++) {
+                boolean ab = (masks[a] & (1 << b)) != 0;
+                boolean ba = (masks[b] & (1 << a)) != 0;
+                if (ab != ba) {
+                    throw new GdxRuntimeException("Collision layers " + names[a] + " and " + names[b] + " do not collide both ways");
+                }
+            }
+        }
+    }
+}
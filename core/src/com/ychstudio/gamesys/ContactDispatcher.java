@@ -0,0 +1,65 @@
+package com.ychstudio.gamesys;
+
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.utils.IntMap;
+
+/**
+ * Calls the handler registered for the category pair of each contact taken from a ContactEventQueue.
+ * Contacts between categories without a handler are ignored.
+ */
+public class ContactDispatcher {
+
+    public interface ContactHandler {
+        /**
+         * @param bodyA the body of the first category the handler was registered with
+         * @param impulse the largest normal impulse of the contact in its first step, 0 for sensors
+         */
+        void handle(Body bodyA, Body bodyB, float impulse);
+    }
+
+    private static class Swapped implements ContactHandler {
+        private final ContactHandler handler;
+
+        Swapped(ContactHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void handle(Body bodyA, Body bodyB, float impulse) {
+            handler.handle(bodyB, bodyA, impulse);
+        }
+    }
+
+    private IntMap<ContactHandler> handlers;
+    private int dispatched;
+
+    public ContactDispatcher() {
+        handlers = new IntMap<>();
+    }
+
+    public void register(short categoryA, short categoryB, ContactHandler handler) {
+        handlers.put(key(categoryA, categoryB), handler);
+        if (categoryA != categoryB) {
+            handlers.put(key(categoryB, categoryA), new Swapped(handler));
+        }
+    }
+
+    private static int key(short categoryA, short categoryB) {
+        return (categoryA & 0xFFFF) << 16 | (categoryB & 0xFFFF);
+    }
+
+    public void dispatch(short categoryA, Body bodyA, short categoryB, Body bodyB, float impulse) {
+        ContactHandler handler = handlers.get(key(categoryA, categoryB));
+        if (handler != null) {
+            handler.handle(bodyA, bodyB, impulse);
+            dispatched++;
+        }
+    }
+
+    /**
+     * @return the number of contacts handed to a handler so far
+     */
+    public int getDispatched() {
+        return dispatched;
+    }
+}
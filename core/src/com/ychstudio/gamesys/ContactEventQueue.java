@@ -0,0 +1,132 @@
+package com.ychstudio.gamesys;
+
+import com.badlogic.gdx.physics.box2d.Body;
+
+/**
+ * Contacts recorded by WorldContactListener during world.step, kept in preallocated arrays
+ * until they are dispatched after the step. The buffer only grows if more contacts begin in one step than it holds.
+ */
+public class ContactEventQueue {
+
+    private short[] categoriesA;
+    private short[] categoriesB;
+    private Body[] bodiesA;
+    private Body[] bodiesB;
+    private float[] impulses;
+
+    private int head;
+    private int size;
+    private int peakSize;
+    private int growCount;
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public ContactEventQueue(int capacity) {
+        allocate(Integer.highestOneBit(Math.max(2, capacity) - 1) << 1);
+    }
+
+    private void allocate(int capacity) {
+        categoriesA = new short[capacity];
+        categoriesB = new short[capacity];
+        bodiesA = new Body[capacity];
+        bodiesB = new Body[capacity];
+        impulses = new float[capacity];
+    }
+
+    public void add(short categoryA, Body bodyA, short categoryB, Body bodyB) {
+        if (size == categoriesA.length) {
+            grow();
+        }
+        int i = (head + size) & (categoriesA.length - 1);
+        categoriesA[i] = categoryA;
+        categoriesB[i] = categoryB;
+        bodiesA[i] = bodyA;
+        bodiesB[i] = bodyB;
+        impulses[i] = 0;
+        size++;
+        peakSize = Math.max(peakSize, size);
+    }
+
+    private void grow() {
+        short[] oldCategoriesA = categoriesA;
+        short[] oldCategoriesB = categoriesB;
+        Body[] oldBodiesA = bodiesA;
+        Body[] oldBodiesB = bodiesB;
+        float[] oldImpulses = impulses;
+        int mask = oldCategoriesA.length - 1;
+
+        allocate(oldCategoriesA.length * 2);
+        for (int n = 0; n < size; n++) {
+            int i = (head + n) & mask;
+            categoriesA[n] = oldCategoriesA[i];
+            categoriesB[n] = oldCategoriesB[i];
+            bodiesA[n] = oldBodiesA[i];
+            bodiesB[n] = oldBodiesB[i];
+            impulses[n] = oldImpulses[i];
+        }
+        head = 0;
+        growCount++;
+    }
+
+    /**
+     * Keeps the largest normal impulse the solver applied between the two bodies for their queued contacts.
+     */
+    public void addImpulse(Body bodyA, Body bodyB, float impulse) {
+        int mask = categoriesA.length - 1;
+        for (int n = 0; n < size; n++) {
+            int i = (head + n) & mask;
+            if ((bodiesA[i] == bodyA && bodiesB[i] == bodyB) || (bodiesA[i] == bodyB && bodiesB[i] == bodyA)) {
+                impulses[i] = Math.max(impulses[i], impulse);
+            }
+        }
+    }
+
+    /**
+     * Hands every queued contact to the dispatcher, oldest first, and empties the queue.
+     */
+    public void dispatch(ContactDispatcher dispatcher) {
+        int mask = categoriesA.length - 1;
+        while (size > 0) {
+            int i = head;
+            head = (head + 1) & mask;
+            size--;
+            Body bodyA = bodiesA[i];
+            Body bodyB = bodiesB[i];
+            bodiesA[i] = null;
+            bodiesB[i] = null;
+            dispatcher.dispatch(categoriesA[i], bodyA, categoriesB[i], bodyB, impulses[i]);
+        }
+    }
+
+    /**
+     * Drops the queued contacts without dispatching them, for when their bodies are about to be destroyed.
+     */
+    public void clear() {
+        for (int i = 0; i < bodiesA.length; i++) {
+            bodiesA[i] = null;
+            bodiesB[i] = null;
+        }
+        head = 0;
+        size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getPeakSize() {
+        return peakSize;
+    }
+
+    /**
+     * @return how many times the buffer was too small for the contacts of one step
+     */
+    public int getGrowCount() {
+        return growCount;
+    }
+}
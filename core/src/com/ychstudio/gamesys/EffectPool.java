@@ -0,0 +1,108 @@
+package com.ychstudio.gamesys;
+
+import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool;
+import com.badlogic.gdx.graphics.g2d.ParticleEmitter;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * A ParticleEffectPool that keeps track of how well it is sized.
+ * A hit is an obtain served from the free list, a miss is an obtain that had to copy the template effect.
+ */
+public class EffectPool extends ParticleEffectPool {
+
+    private final String name;
+    private final float lifetime;
+
+    private int hits;
+    private int misses;
+    private int inUse;
+    private int peakInUse;
+
+    public EffectPool(String name, ParticleEffect effect, int initialCapacity, int max) {
+        super(effect, initialCapacity, max);
+        this.name = name;
+
+        // the longest emitter: its delay, how long it emits and how long its last particle lives, in milliseconds
+        float longest = 0;
+        for (ParticleEmitter emitter : effect.getEmitters()) {
+            float delay = emitter.getDelay().isActive() ? emitter.getDelay().getLowMax() : 0;
+            longest = Math.max(longest, delay + emitter.getDuration().getLowMax() + emitter.getLife().getHighMax());
+        }
+        lifetime = longest / 1000f;
+    }
+
+    /**
+     * Creates effects until the pool holds at least count free effects, then clears the counters
+     * so that pre-warming does not show up as misses.
+     */
+    public void prewarm(int count) {
+        int missing = count - getFree();
+        if (missing > 0) {
+            Array<PooledEffect> effects = new Array<>(missing);
+            for (int i = 0; i < missing; i++) {
+                effects.add(obtain());
+            }
+            freeAll(effects);
+        }
+        resetCounters();
+    }
+
+    @Override
+    protected PooledEffect newObject() {
+        misses++;
+        return super.newObject();
+    }
+
+    @Override
+    public PooledEffect obtain() {
+        int free = getFree();
+        PooledEffect effect = super.obtain();
+        if (free > 0) {
+            hits++;
+        }
+        inUse++;
+        peakInUse = Math.max(peakInUse, inUse);
+        return effect;
+    }
+
+    @Override
+    public void free(PooledEffect effect) {
+        super.free(effect);
+        inUse = Math.max(0, inUse - 1);
+    }
+
+    public void resetCounters() {
+        hits = 0;
+        misses = 0;
+        inUse = 0;
+        peakInUse = 0;
+    }
+
+    /**
+     * @return seconds until an effect of the pool is certainly complete
+     */
+    public float getLifetime() {
+        return lifetime;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+
+    public int getInUse() {
+        return inUse;
+    }
+
+    public int getPeakInUse() {
+        return peakInUse;
+    }
+}
@@ -0,0 +1,222 @@
+package com.ychstudio.gamesys;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.BitmapFontData;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.Glyph;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Generates every font Style once per process and shares it between screens, the fonts are owned here
+ * and must not be disposed by the screens.
+ * With a cache directory the generated pages and glyphs are written as a .png + .fnt pair,
+ * and later launches load them instead of running FreeType.
+ */
+public class FontService {
+
+    public static final String FONT_FILE = "font/MONOFONT.TTF";
+
+    private static final int CACHE_VERSION = 1;
+    private static final int PAGE_SIZE = 512;
+
+    /**
+     * The FreeType parameters that change between the game's fonts.
+     */
+    public static class Style {
+        public final int size;
+        public final Color color;
+        public final float borderWidth;
+        public final Color borderColor;
+        private final String key;
+
+        public Style(int size) {
+            this(size, Color.WHITE, 0, Color.BLACK);
+        }
+
+        public Style(int size, Color color, float borderWidth, Color borderColor) {
+            this.size = size;
+            this.color = new Color(color);
+            this.borderWidth = borderWidth;
+            this.borderColor = new Color(borderColor);
+            key = "mono" + size + "_" + this.color + "_" + borderWidth + "_" + this.borderColor;
+        }
+    }
+
+    private static FontService instance = new FontService();
+
+    private ObjectMap<String, BitmapFont> fonts;
+    private FileHandle cacheDirectory;
+
+    private FontService() {
+        fonts = new ObjectMap<>();
+    }
+
+    /**
+     * @param directory where generated fonts are written and read, null to always run FreeType
+     */
+    public static void setCacheDirectory(FileHandle directory) {
+        instance.cacheDirectory = directory;
+    }
+
+    public static BitmapFont getFont(Style style) {
+        BitmapFont font = instance.fonts.get(style.key);
+        if (font == null) {
+            font = instance.loadCached(style);
+            if (font == null) {
+                font = instance.generate(style);
+            }
+            instance.fonts.put(style.key, font);
+        }
+        return font;
+    }
+
+    private BitmapFont generate(Style style) {
+        FreeTypeFontParameter parameter = new FreeTypeFontParameter();
+        parameter.size = style.size;
+        parameter.color = style.color;
+        parameter.borderWidth = style.borderWidth;
+        parameter.borderColor = style.borderColor;
+        parameter.minFilter = TextureFilter.Linear;
+        parameter.magFilter = TextureFilter.Linear;
+        // our own packer, so the pages can still be written after the textures are created
+        PixmapPacker packer = new PixmapPacker(PAGE_SIZE, PAGE_SIZE, Pixmap.Format.RGBA8888, 1, false);
+        parameter.packer = packer;
+
+        FreeTypeFontGenerator generator = new FreeTypeFontGenerator(Gdx.files.internal(FONT_FILE));
+        BitmapFont font = generator.generateFont(parameter);
+        generator.dispose();
+
+        if (cacheDirectory != null) {
+            try {
+                write(style, font, packer);
+            }
+            catch (GdxRuntimeException e) {
+                Gdx.app.error("FontService", "cannot cache " + style.key, e);
+            }
+        }
+
+        font.setOwnsTexture(true);
+        packer.dispose();
+        return font;
+    }
+
+    private FileHandle cacheFile(Style style, String suffix) {
+        // the font file length tells a changed font apart
+        String name = style.key + "_" + Gdx.files.internal(FONT_FILE).length() + "_v" + CACHE_VERSION;
+        return cacheDirectory.child(name.replace('.', '_') + suffix);
+    }
+
+    private BitmapFont loadCached(Style style) {
+        if (cacheDirectory == null) {
+            return null;
+        }
+        FileHandle fntFile = cacheFile(style, ".fnt");
+        FileHandle metricsFile = cacheFile(style, ".metrics");
+        if (!fntFile.exists() || !metricsFile.exists()) {
+            return null;
+        }
+        try {
+            BitmapFont font = new BitmapFont(fntFile);
+            for (TextureRegion region : font.getRegions()) {
+                region.getTexture().setFilter(TextureFilter.Linear, TextureFilter.Linear);
+            }
+            readMetrics(font.getData(), metricsFile);
+            return font;
+        }
+        catch (GdxRuntimeException e) {
+            Gdx.app.error("FontService", "cannot load cached " + fntFile.name(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the pages as png, the glyphs in the text .fnt format and the font metrics,
+     * which BitmapFont would otherwise derive from the glyphs slightly differently than FreeType does.
+     */
+    private void write(Style style, BitmapFont font, PixmapPacker packer) {
+        FileHandle fntFile = cacheFile(style, ".fnt");
+        BitmapFontData data = font.getData();
+        int pageCount = packer.getPages().size;
+
+        String pagePrefix = fntFile.nameWithoutExtension() + "_";
+        for (int i = 0; i < pageCount; i++) {
+            PixmapIO.writePNG(fntFile.sibling(pagePrefix + i + ".png"), packer.getPages().get(i).getPixmap());
+        }
+
+        int glyphCount = 0;
+        for (Glyph[] page : data.glyphs) {
+            if (page != null) {
+                for (Glyph glyph : page) {
+                    if (glyph != null) {
+                        glyphCount++;
+                    }
+                }
+            }
+        }
+
+        StringBuilder text = new StringBuilder();
+        text.append("info face=\"MONOFONT\" size=").append(style.size).append(" padding=0,0,0,0 spacing=1,1\n");
+        text.append("common lineHeight=").append((int) data.lineHeight).append(" base=").append((int) (data.capHeight + data.ascent))
+            .append(" scaleW=").append(PAGE_SIZE).append(" scaleH=").append(PAGE_SIZE).append(" pages=").append(pageCount).append('\n');
+        for (int i = 0; i < pageCount; i++) {
+            text.append("page id=").append(i).append(" file=\"").append(pagePrefix).append(i).append(".png\"\n");
+        }
+        text.append("chars count=").append(glyphCount).append('\n');
+        for (Glyph[] page : data.glyphs) {
+            if (page == null) {
+                continue;
+            }
+            for (Glyph glyph : page) {
+                if (glyph == null) {
+                    continue;
+                }
+                // BitmapFontData.load turns the yoffset back into -(height + yoffset)
+                text.append("char id=").append(glyph.id)
+                    .append(" x=").append(glyph.srcX).append(" y=").append(glyph.srcY)
+                    .append(" width=").append(glyph.width).append(" height=").append(glyph.height)
+                    .append(" xoffset=").append(glyph.xoffset).append(" yoffset=").append(-(glyph.height + glyph.yoffset))
+                    .append(" xadvance=").append(glyph.xadvance).append(" page=").append(glyph.page).append(" chnl=0\n");
+            }
+        }
+        fntFile.writeString(text.toString(), false, "UTF-8");
+
+        cacheFile(style, ".metrics").writeString(data.lineHeight + " " + data.capHeight + " " + data.ascent + " "
+                + data.descent + " " + data.down + " " + data.spaceWidth + " " + data.xHeight + "\n", false, "UTF-8");
+    }
+
+    private void readMetrics(BitmapFontData data, FileHandle metricsFile) {
+        String[] values = metricsFile.readString("UTF-8").trim().split(" ");
+        if (values.length != 7) {
+            throw new GdxRuntimeException("Invalid font metrics: " + metricsFile.name());
+        }
+        try {
+            data.lineHeight = Float.parseFloat(values[0]);
+            data.capHeight = Float.parseFloat(values[1]);
+            data.ascent = Float.parseFloat(values[2]);
+            data.descent = Float.parseFloat(values[3]);
+            data.down = Float.parseFloat(values[4]);
+            data.spaceWidth = Float.parseFloat(values[5]);
+            data.xHeight = Float.parseFloat(values[6]);
+        }
+        catch (NumberFormatException e) {
+            throw new GdxRuntimeException("Invalid font metrics: " + metricsFile.name(), e);
+        }
+    }
+
+    public static void dispose() {
+        for (BitmapFont font : instance.fonts.values()) {
+            font.dispose();
+        }
+        instance.fonts.clear();
+    }
+}
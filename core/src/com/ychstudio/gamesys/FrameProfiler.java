@@ -0,0 +1,167 @@
+package com.ychstudio.gamesys;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures how long each phase of a frame takes and keeps the last HISTORY frames of every phase.
+ * Phases may be measured several times in a frame, the times are added up.
+ * When the profiler is disabled begin and end return immediately.
+ */
+public class FrameProfiler {
+
+    public enum Phase {
+        INPUT("input"),
+        WORLD_STEP("world.step"),
+        ACTORS("actors"),
+        PARTICLES("particles"),
+        BACKGROUND("background"),
+        BATCH("batch"),
+        STATUS_HUD("status hud"),
+        STAGE("stage"),
+        TRANSITION("transition");
+
+        public final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+    }
+
+    public static final int HISTORY = 240; // frames
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private static FrameProfiler instance = new FrameProfiler();
+
+    private boolean enabled;
+
+    private final long[] startNanos = new long[PHASES.length];
+    private final long[] frameNanos = new long[PHASES.length];
+    private final long[][] history = new long[PHASES.length][HISTORY];
+    private final long[] frameHistory = new long[HISTORY];
+    private final long[] sorted = new long[HISTORY];
+    private int head; // index of the next frame in the history
+    private int count;
+    private long frameStartNanos;
+
+    private final List<GarbageCollectorMXBean> garbageCollectors;
+    private long gcCount;
+    private long lastGcCount;
+    private long frameGcCount;
+
+    private FrameProfiler() {
+        garbageCollectors = ManagementFactory.getGarbageCollectorMXBeans();
+    }
+
+    public static void setEnabled(boolean enabled) {
+        if (enabled && !instance.enabled) {
+            instance.count = 0;
+            instance.head = 0;
+            Arrays.fill(instance.frameNanos, 0);
+            instance.lastGcCount = instance.readGcCount();
+            instance.frameStartNanos = System.nanoTime();
+        }
+        instance.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return instance.enabled;
+    }
+
+    public static void begin(Phase phase) {
+        if (instance.enabled) {
+            instance.startNanos[phase.ordinal()] = System.nanoTime();
+        }
+    }
+
+    public static void end(Phase phase) {
+        if (instance.enabled) {
+            int i = phase.ordinal();
+            instance.frameNanos[i] += System.nanoTime() - instance.startNanos[i];
+        }
+    }
+
+    /**
+     * Moves the times of the frame that just finished into the history.
+     */
+    public static void endFrame() {
+        FrameProfiler p = instance;
+        if (!p.enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (int i = 0; i < PHASES.length; i++) {
+            p.history[i][p.head] = p.frameNanos[i];
+            p.frameNanos[i] = 0;
+        }
+        p.frameHistory[p.head] = now - p.frameStartNanos;
+        p.frameStartNanos = now;
+        p.head = (p.head + 1) % HISTORY;
+        p.count = Math.min(p.count + 1, HISTORY);
+
+        p.gcCount = p.readGcCount();
+        p.frameGcCount = p.gcCount - p.lastGcCount;
+        p.lastGcCount = p.gcCount;
+    }
+
+    private long readGcCount() {
+        long total = 0;
+        for (int i = 0; i < garbageCollectors.size(); i++) {
+            total += Math.max(0, garbageCollectors.get(i).getCollectionCount());
+        }
+        return total;
+    }
+
+    /**
+     * @param percentile between 0 and 1
+     * @return the time in nanoseconds below which that share of the recorded frames fall, for the phase
+     */
+    public static long getPercentile(Phase phase, float percentile) {
+        return instance.percentile(instance.history[phase.ordinal()], percentile);
+    }
+
+    public static long getFramePercentile(float percentile) {
+        return instance.percentile(instance.frameHistory, percentile);
+    }
+
+    private long percentile(long[] samples, float percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        System.arraycopy(samples, 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        int index = Math.min(count - 1, (int) (percentile * count));
+        return sorted[index];
+    }
+
+    public static long getMax(Phase phase) {
+        return getPercentile(phase, 1f);
+    }
+
+    /**
+     * @param framesAgo 0 for the last finished frame
+     * @return the time in nanoseconds of the phase in that frame, 0 if it is not recorded
+     */
+    public static long getSample(Phase phase, int framesAgo) {
+        if (framesAgo >= instance.count) {
+            return 0;
+        }
+        int index = (instance.head - 1 - framesAgo + HISTORY) % HISTORY;
+        return instance.history[phase.ordinal()][index];
+    }
+
+    public static int getSampleCount() {
+        return instance.count;
+    }
+
+    public static long getFrameGcCount() {
+        return instance.frameGcCount;
+    }
+
+    public static long getGcCount() {
+        return instance.gcCount;
+    }
+}
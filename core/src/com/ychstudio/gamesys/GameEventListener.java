@@ -0,0 +1,17 @@
+package com.ychstudio.gamesys;
+
+import com.ychstudio.actors.Player;
+
+/**
+ * Receives the gameplay events of a GameSimulation that need sound or particle effects.
+ * Events are sent from inside the simulation step, so implementations must not touch the World.
+ */
+public interface GameEventListener {
+
+    public void throttleChanged(Player player, boolean leftThrottle, boolean rightThrottle);
+
+    public void playerExploded(Player player, float x, float y);
+
+    public void asteroidExploded(float x, float y, float size);
+
+}
@@ -0,0 +1,464 @@
+package com.ychstudio.gamesys;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.PooledEngine;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.ychstudio.actors.Player;
+import com.ychstudio.gamesys.ContactDispatcher.ContactHandler;
+import com.ychstudio.gamesys.FrameProfiler.Phase;
+import com.ychstudio.ecs.PhysicsSyncSystem;
+import com.ychstudio.ecs.RemovalSystem;
+import com.ychstudio.ecs.RenderSystem;
+
+/**
+ * The gameplay of a flight: the World, the AsteroidField and the entities of the engine,
+ * the player, the ground and the explosions. The Player flies the player's entity.
+ * It has no graphics or audio dependencies, so it can be driven through getInput() on the headless backend.
+ * Sprites are only created when ActorBuilder has an AssetManager.
+ * A flight is reproducible: the level is the LevelLayout of the seed, and with an InputRecording every step's input is kept
+ * or replayed, together with the view and the asteroid mode. Replays start from a new World so that Box2D sees the same
+ * bodies in the same order as in a new process; a recording replays bit for bit when it was also made in a new World,
+ * see setFreshWorld(). Other restarts reuse the World, the player and the pooled asteroid bodies.
+ */
+public class GameSimulation implements Disposable {
+    public static final float WIDTH = 20f;
+    public static final float TIME_STEP = 1f / 60f;
+    public static final int MAX_STEPS = 5; // physics steps allowed per update
+    public static final int ASTEROID_BODIES = 64; // pooled in every new World, flights in the game's view peak below 50
+
+    private static final GameEventListener NO_EVENTS = new GameEventListener() {
+        @Override
+        public void throttleChanged(Player player, boolean leftThrottle, boolean rightThrottle) {
+        }
+
+        @Override
+        public void playerExploded(Player player, float x, float y) {
+        }
+
+        @Override
+        public void asteroidExploded(float x, float y, float size) {
+        }
+    };
+
+    private static final ContactHandler PLAYER_HITS_GROUND = new ContactHandler() {
+        @Override
+        public void handle(Body playerBody, Body groundBody, float impulse) {
+            ((Player) playerBody.getUserData()).hitGround();
+        }
+    };
+
+    private static final ContactHandler PLAYER_HITS_ASTEROID = new ContactHandler() {
+        @Override
+        public void handle(Body playerBody, Body asteroidBody, float impulse) {
+            AsteroidField.BodyData asteroid = (AsteroidField.BodyData) asteroidBody.getUserData();
+            asteroid.field.explode(asteroid.getSlot());
+            ((Player) playerBody.getUserData()).getDamaged(asteroid.field.getAsteroidSize(asteroid.getSlot()));
+        }
+    };
+
+    private World world;
+    private ContactEventQueue contactEvents;
+    private ContactDispatcher contactDispatcher;
+    private GameEventListener eventListener;
+    private PlayerInput input;
+    private CollisionDiagnostics collisionDiagnostics;
+
+    private long seed;
+    private RandomXS128 seeds;
+    private LevelGenerator.Profile profile = LevelGenerator.NORMAL;
+    private boolean recordInput;
+    private boolean freshWorld;
+    private InputRecording recording;
+    private InputRecording replay;
+
+    private float accumulator;
+    private float alpha; // how far the last update is between the last two physics states
+    private int stepCount;
+
+    private float goalY; // the y position of goal
+    private boolean goal;
+
+    private Array<LevelChunk> levelChunks;
+    private float chunkActivationDistance = 15f; // chunks this far above or below the view are simulated
+    private float viewOffsetY; // the view's center relative to the player
+    private float viewHalfHeight = 6f;
+
+    private AsteroidField asteroids;
+    private boolean analyticAsteroids;
+    private PooledEngine engine; // everything in the world apart from the asteroids
+    private PhysicsSyncSystem physicsSyncSystem;
+    private RemovalSystem removalSystem;
+    private RenderSystem renderSystem;
+    private Player player;
+    private Entity ground;
+
+    public GameSimulation(GameEventListener eventListener) {
+        this.eventListener = eventListener != null ? eventListener : NO_EVENTS;
+        input = new PlayerInput();
+        seeds = new RandomXS128();
+
+        contactEvents = new ContactEventQueue(64);
+        contactDispatcher = new ContactDispatcher();
+        contactDispatcher.register(GM.PLAYER_CATEGORY_BITS, GM.GROUND_CATEGORY_BITS, PLAYER_HITS_GROUND);
+        contactDispatcher.register(GM.PLAYER_CATEGORY_BITS, GM.ASTEROID_CATEGORY_BITS, PLAYER_HITS_ASTEROID);
+
+        asteroids = new AsteroidField(this, 128);
+
+        engine = new PooledEngine();
+        physicsSyncSystem = new PhysicsSyncSystem(0);
+        removalSystem = new RemovalSystem(1);
+        renderSystem = new RenderSystem();
+        engine.addSystem(physicsSyncSystem);
+        engine.addSystem(removalSystem);
+        engine.addSystem(renderSystem);
+        levelChunks = new Array<>();
+
+        createWorld();
+        restart();
+    }
+
+    private void createWorld() {
+        world = new World(new Vector2(0, -20f), true);
+        world.setContactListener(new WorldContactListener(contactEvents));
+        if (collisionDiagnostics != null) {
+            collisionDiagnostics.install(world);
+        }
+
+        ActorBuilder.setWorld(world);
+
+        player = ActorBuilder.createPlayer(this, WIDTH / 2, 2.5f);
+        ground = ActorBuilder.createGround(engine, WIDTH / 2, 1f);
+        // always right after the player and the ground, so every new World has its bodies in the same order
+        asteroids.prewarmBodies(ASTEROID_BODIES);
+    }
+
+    /**
+     * Advances the simulation by delta seconds in fixed steps of TIME_STEP, at most MAX_STEPS at a time.
+     */
+    public void update(float delta) {
+        accumulator += delta;
+        int steps = 0;
+        while (accumulator >= TIME_STEP && steps < MAX_STEPS) {
+            step();
+            accumulator -= TIME_STEP;
+            steps++;
+        }
+        if (accumulator >= TIME_STEP) {
+            // too far behind, drop the backlog instead of slowing down every following update
+            accumulator %= TIME_STEP;
+        }
+        alpha = accumulator / TIME_STEP;
+    }
+
+    /**
+     * Runs exactly one physics step with the current input.
+     */
+    public void step() {
+        if (replay != null) {
+            replay.replay(input);
+        }
+        else if (recording != null) {
+            recording.record(input);
+        }
+
+        asteroids.savePreviousState();
+
+        FrameProfiler.begin(Phase.WORLD_STEP);
+        world.step(TIME_STEP, 8, 3);
+        FrameProfiler.end(Phase.WORLD_STEP);
+        if (collisionDiagnostics != null) {
+            collisionDiagnostics.sample(world);
+        }
+
+        FrameProfiler.begin(Phase.ACTORS);
+        // the contacts of the step, out of the Box2D callbacks
+        contactEvents.dispatch(contactDispatcher);
+        asteroids.hitPlayer(player);
+        player.update(TIME_STEP);
+
+        asteroids.update();
+        asteroids.sweep();
+        engine.update(TIME_STEP);
+        FrameProfiler.end(Phase.ACTORS);
+
+        updateLevelChunks();
+
+        if (player.goal()) {
+            goal = true;
+        }
+
+        stepCount++;
+    }
+
+    private void clearLevel() {
+        for (LevelChunk chunk : levelChunks) {
+            chunk.deactivate(asteroids);
+        }
+        asteroids.clear();
+    }
+
+    /**
+     * Starts a new flight with a new seed.
+     */
+    public void restart() {
+        restart(seeds.nextLong());
+    }
+
+    /**
+     * Starts a new flight whose level is built from the seed. A replay started before is stopped.
+     */
+    public void restart(long seed) {
+        replay = null;
+        startFlight(seed);
+    }
+
+    private void startFlight(long seed) {
+        this.seed = seed;
+        LevelLayout layout = LevelGenerator.getLayout(seed, profile);
+        goalY = layout.getGoalY();
+
+        clearLevel();
+        asteroids.setAnalytic(analyticAsteroids);
+        contactEvents.clear();
+        if (freshWorld || replay != null) {
+            asteroids.clearPool();
+            // the bodies of the entities go with the world
+            engine.removeAllEntities();
+            world.dispose();
+            createWorld();
+        }
+        else {
+            // the explosions of the last flight go, the player and the ground stay
+            removalSystem.removeAll();
+        }
+        player.restart(goalY);
+        input.clear();
+        if (recordInput) {
+            if (recording == null) {
+                recording = new InputRecording();
+            }
+            recording.reset(seed, viewOffsetY, viewHalfHeight, analyticAsteroids);
+        }
+
+        setupLevel(layout);
+
+        goal = false;
+        accumulator = 0;
+        alpha = 0;
+        stepCount = 0;
+    }
+
+    /**
+     * Points the chunks at the layout, the chunks themselves are kept from flight to flight.
+     */
+    private void setupLevel(LevelLayout layout) {
+        asteroids.setLayout(layout);
+
+        int chunkCount = layout.getChunkCount();
+        while (levelChunks.size < chunkCount) {
+            levelChunks.add(new LevelChunk());
+        }
+        levelChunks.truncate(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            levelChunks.get(i).set(layout, i);
+        }
+
+        updateLevelChunks();
+    }
+
+    /**
+     * Activates the chunks that are within chunkActivationDistance of the view and
+     * gives the asteroids of the others back to the pool.
+     */
+    private void updateLevelChunks() {
+        float viewY = player.getPosition().y + viewOffsetY;
+        float bottom = viewY - viewHalfHeight - chunkActivationDistance;
+        float top = viewY + viewHalfHeight + chunkActivationDistance;
+
+        for (LevelChunk chunk : levelChunks) {
+            boolean inRange = chunk.getMaxY() >= bottom && chunk.getMinY() <= top;
+            if (inRange) {
+                chunk.activate(asteroids);
+            }
+            else {
+                chunk.deactivate(asteroids);
+            }
+        }
+    }
+
+    /**
+     * Sets the part of the level around the player that can be visible, used to decide which chunks are simulated.
+     * It only depends on the player's position, not on a camera, so the same input simulates the same chunks.
+     * Takes effect right away, so a flight that has not made a step yet starts with the chunks a replay of it starts with.
+     * @param offsetY the view's center relative to the player
+     */
+    public void setView(float offsetY, float halfHeight) {
+        viewOffsetY = offsetY;
+        viewHalfHeight = halfHeight;
+        updateLevelChunks();
+    }
+
+    /**
+     * Counts broadphase pairs and contacts per pair of collision layers from now on, null to stop counting.
+     */
+    public void setCollisionDiagnostics(CollisionDiagnostics collisionDiagnostics) {
+        this.collisionDiagnostics = collisionDiagnostics;
+        world.setContactFilter(collisionDiagnostics);
+    }
+
+    /**
+     * Simulates the asteroids without Box2D bodies, see AsteroidField. They no longer push the player when they are hit,
+     * so a flight recorded in one mode does not replay in the other. Takes effect with the next restart.
+     */
+    public void setAnalyticAsteroids(boolean analyticAsteroids) {
+        this.analyticAsteroids = analyticAsteroids;
+    }
+
+    /**
+     * While recording, every restart begins a new InputRecording of the flight, see getRecording().
+     * Takes effect with the next restart, or right away if the current flight has not made a step yet.
+     */
+    public void setRecordInput(boolean recordInput) {
+        this.recordInput = recordInput;
+        if (!recordInput) {
+            recording = null;
+        }
+        else if (recording == null && replay == null && stepCount == 0) {
+            recording = new InputRecording();
+            recording.reset(seed, viewOffsetY, viewHalfHeight, asteroids.isAnalytic());
+        }
+    }
+
+    /**
+     * Builds a new World for every flight, so that a recorded flight replays bit for bit.
+     * Costs the allocation of the World and every body on each restart, which is only worth it while recording.
+     * Takes effect with the next restart.
+     */
+    public void setFreshWorld(boolean freshWorld) {
+        this.freshWorld = freshWorld;
+    }
+
+    /**
+     * The input of the current flight so far, or null when input is not recorded.
+     */
+    public InputRecording getRecording() {
+        return recording;
+    }
+
+    /**
+     * Restarts with the recording's seed, view and asteroid mode, which the simulation keeps afterwards,
+     * and takes the input of the following steps from the recording. The input is cleared once the recording is over.
+     */
+    public void replay(InputRecording recording) {
+        viewOffsetY = recording.getViewOffsetY();
+        viewHalfHeight = recording.getViewHalfHeight();
+        analyticAsteroids = recording.isAnalyticAsteroids();
+        replay = recording;
+        replay.rewind();
+        startFlight(recording.getSeed());
+    }
+
+    public boolean isReplayFinished() {
+        return replay != null && replay.isReplayFinished();
+    }
+
+    /**
+     * Sets the profile of the levels built by the following restarts.
+     */
+    public void setProfile(LevelGenerator.Profile profile) {
+        this.profile = profile;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setChunkActivationDistance(float distance) {
+        chunkActivationDistance = distance;
+    }
+
+    public PlayerInput getInput() {
+        return input;
+    }
+
+    public GameEventListener getEventListener() {
+        return eventListener;
+    }
+
+    public ContactEventQueue getContactEvents() {
+        return contactEvents;
+    }
+
+    public ContactDispatcher getContactDispatcher() {
+        return contactDispatcher;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public PooledEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Places the entities with a body between their last two physics states, see PhysicsSyncSystem.
+     */
+    public PhysicsSyncSystem getPhysicsSyncSystem() {
+        return physicsSyncSystem;
+    }
+
+    /**
+     * Draws the entities with a sprite, see RenderSystem.
+     */
+    public RenderSystem getRenderSystem() {
+        return renderSystem;
+    }
+
+    public Entity getGround() {
+        return ground;
+    }
+
+    public AsteroidField getAsteroids() {
+        return asteroids;
+    }
+
+    public float getAlpha() {
+        return alpha;
+    }
+
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    public float getGoalY() {
+        return goalY;
+    }
+
+    public boolean isGoal() {
+        return goal;
+    }
+
+    /**
+     * @return true when the flight is over, either the player is dead or has reached the goal
+     */
+    public boolean isFinished() {
+        return goal || !player.isPlayerAlive();
+    }
+
+    @Override
+    public void dispose() {
+        // gives the particle effects back to their pools
+        engine.removeAllEntities();
+        world.dispose();
+    }
+}
@@ -0,0 +1,220 @@
+package com.ychstudio.gamesys;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.StreamUtils;
+
+/**
+ * The level seed, the settings the flight was simulated with and the PlayerInput of every step of a flight.
+ * The settings are the view that decides which chunks are simulated and whether the asteroids were analytic.
+ * The input is kept as runs of steps with the same throttle state, so a flight costs a few bytes per key change.
+ * File format: magic, version, seed, view offset, view half height, analytic asteroids as a byte, step count, run count,
+ * then per run the length as a varint and the state as a byte.
+ */
+public class InputRecording {
+
+    private static final int MAGIC = 0x534D5243; // "SMRC"
+    private static final int VERSION = 2;
+
+    private static final int LEFT_THROTTLE = 1;
+    private static final int RIGHT_THROTTLE = 2;
+
+    private long seed;
+    private float viewOffsetY;
+    private float viewHalfHeight;
+    private boolean analyticAsteroids;
+    private int steps;
+    private final IntArray runLengths;
+    private final IntArray runStates;
+
+    // replay position
+    private int run;
+    private int runStep;
+    private int replayedSteps;
+
+    public InputRecording() {
+        runLengths = new IntArray();
+        runStates = new IntArray();
+    }
+
+    /**
+     * Forgets the recorded input and starts again for a flight of the given seed and settings,
+     * see GameSimulation.setView() and setAnalyticAsteroids().
+     */
+    public void reset(long seed, float viewOffsetY, float viewHalfHeight, boolean analyticAsteroids) {
+        this.seed = seed;
+        this.viewOffsetY = viewOffsetY;
+        this.viewHalfHeight = viewHalfHeight;
+        this.analyticAsteroids = analyticAsteroids;
+        steps = 0;
+        runLengths.clear();
+        runStates.clear();
+        rewind();
+    }
+
+    /**
+     * Appends the input of the next step.
+     */
+    public void record(PlayerInput input) {
+        int state = encode(input);
+        int last = runStates.size - 1;
+        if (last >= 0 && runStates.get(last) == state) {
+            runLengths.incr(last, 1);
+        }
+        else {
+            runLengths.add(1);
+            runStates.add(state);
+        }
+        steps++;
+    }
+
+    /**
+     * Starts the replay from the first step.
+     */
+    public void rewind() {
+        run = 0;
+        runStep = 0;
+        replayedSteps = 0;
+    }
+
+    /**
+     * Sets the input of the next replayed step, or clears it once every recorded step has been replayed.
+     */
+    public void replay(PlayerInput input) {
+        if (replayedSteps == steps) {
+            input.clear();
+            return;
+        }
+        int state = runStates.get(run);
+        input.set((state & LEFT_THROTTLE) != 0, (state & RIGHT_THROTTLE) != 0);
+        replayedSteps++;
+        if (++runStep == runLengths.get(run)) {
+            run++;
+            runStep = 0;
+        }
+    }
+
+    public boolean isReplayFinished() {
+        return replayedSteps == steps;
+    }
+
+    private static int encode(PlayerInput input) {
+        return (input.leftThrottle ? LEFT_THROTTLE : 0) | (input.rightThrottle ? RIGHT_THROTTLE : 0);
+    }
+
+    public void write(FileHandle file) {
+        DataOutputStream out = new DataOutputStream(file.write(false, 4096));
+        try {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(seed);
+            out.writeFloat(viewOffsetY);
+            out.writeFloat(viewHalfHeight);
+            out.writeBoolean(analyticAsteroids);
+            out.writeInt(steps);
+            out.writeInt(runLengths.size);
+            for (int i = 0; i < runLengths.size; i++) {
+                writeVarInt(out, runLengths.get(i));
+                out.writeByte(runStates.get(i));
+            }
+        }
+        catch (IOException e) {
+            throw new GdxRuntimeException("Error writing recording: " + file, e);
+        }
+        finally {
+            StreamUtils.closeQuietly(out);
+        }
+    }
+
+    /**
+     * @throws GdxRuntimeException if the file is not a recording, is truncated or its runs do not add up to its steps
+     */
+    public static InputRecording read(FileHandle file) {
+        InputRecording recording = new InputRecording();
+        DataInputStream in = new DataInputStream(file.read(4096));
+        try {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                throw new GdxRuntimeException("Not a recording or a different version: " + file);
+            }
+            recording.reset(in.readLong(), in.readFloat(), in.readFloat(), in.readBoolean());
+            int steps = in.readInt();
+            int runCount = in.readInt();
+            // every run has at least one step
+            if (steps < 0 || runCount < 0 || runCount > steps) {
+                throw new GdxRuntimeException("Corrupt recording, " + steps + " steps in " + runCount + " runs: " + file);
+            }
+            long sum = 0;
+            for (int i = 0; i < runCount; i++) {
+                int length = readVarInt(in);
+                int state = in.readUnsignedByte();
+                if (length <= 0 || (state & ~(LEFT_THROTTLE | RIGHT_THROTTLE)) != 0) {
+                    throw new GdxRuntimeException("Corrupt recording, run " + i + " has length " + length
+                            + " and state " + state + ": " + file);
+                }
+                sum += length;
+                recording.runLengths.add(length);
+                recording.runStates.add(state);
+            }
+            if (sum != steps) {
+                throw new GdxRuntimeException("Corrupt recording, the runs have " + sum + " steps instead of " + steps + ": " + file);
+            }
+            recording.steps = steps;
+        }
+        catch (IOException e) {
+            throw new GdxRuntimeException("Error reading recording: " + file, e);
+        }
+        finally {
+            StreamUtils.closeQuietly(in);
+        }
+        return recording;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public float getViewOffsetY() {
+        return viewOffsetY;
+    }
+
+    public float getViewHalfHeight() {
+        return viewHalfHeight;
+    }
+
+    public boolean isAnalyticAsteroids() {
+        return analyticAsteroids;
+    }
+
+    public int getSteps() {
+        return steps;
+    }
+
+    public int getRunCount() {
+        return runLengths.size;
+    }
+}
@@ -0,0 +1,82 @@
+package com.ychstudio.gamesys;
+
+/**
+ * A vertical slice of the level, a range of asteroids of a LevelLayout.
+ * While the chunk is active its asteroids that have not been destroyed are in the AsteroidField,
+ * when it is deactivated their bodies go back to the field's pool.
+ */
+public class LevelChunk {
+
+    private LevelLayout layout;
+    private int start;
+    private int end;
+
+    private float minY;
+    private float maxY;
+
+    private boolean active;
+
+    /**
+     * Makes this the chunk'th chunk of the layout. The chunk must not be active.
+     */
+    public void set(LevelLayout layout, int chunk) {
+        this.layout = layout;
+        start = layout.getChunkStart(chunk);
+        end = layout.getChunkEnd(chunk);
+        minY = Float.MAX_VALUE;
+        maxY = -Float.MAX_VALUE;
+        for (int i = start; i < end; i++) {
+            float radius = Math.max(layout.sizes[i], 2) / 4f;
+            minY = Math.min(minY, layout.ys[i] - radius);
+            maxY = Math.max(maxY, layout.ys[i] + radius);
+        }
+        active = false;
+    }
+
+    /**
+     * Adds the asteroids that have not been destroyed yet to the field.
+     * @return true if the chunk was not active before
+     */
+    public boolean activate(AsteroidField asteroids) {
+        if (active) {
+            return false;
+        }
+        LevelLayout layout = this.layout;
+        for (int i = start; i < end; i++) {
+            if (!asteroids.isDestroyed(i)) {
+                asteroids.add(i, layout.xs[i], layout.ys[i], layout.colors[i], layout.sizes[i], layout.angularVelocities[i]);
+            }
+        }
+        active = true;
+        return true;
+    }
+
+    /**
+     * Removes the chunk's live asteroids from the field.
+     * @return true if the chunk was active before
+     */
+    public boolean deactivate(AsteroidField asteroids) {
+        if (!active) {
+            return false;
+        }
+        asteroids.removeRange(start, end);
+        active = false;
+        return true;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public float getMinY() {
+        return minY;
+    }
+
+    public float getMaxY() {
+        return maxY;
+    }
+
+    public int getCount() {
+        return end - start;
+    }
+}
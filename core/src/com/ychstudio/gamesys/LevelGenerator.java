@@ -0,0 +1,180 @@
+package com.ychstudio.gamesys;
+
+import java.util.Arrays;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Builds the LevelLayout of a seed and a Profile, and keeps the last layouts it built,
+ * so restarting or replaying a level only copies its arrays into the simulation.
+ * With a cache directory layouts are also written to and read from small binary files.
+ */
+public class LevelGenerator {
+
+    public static final int CACHE_SIZE = 4;
+
+    /**
+     * How hard a level is: how many asteroids each chunk has and how big and close together they are.
+     */
+    public static class Profile {
+        public final String name;
+        public final int[] chunkAsteroids;
+        public final int minSize;
+        public final int maxSize;
+        public final float minGap;
+        public final float maxGap;
+        public final float startY;
+        public final float goalY;
+        public final float maxSpin; // degrees per second
+        public final int parameterHash; // of everything but the name, part of the cache file name
+
+        public Profile(String name, int[] chunkAsteroids, int minSize, int maxSize, float minGap, float maxGap,
+                float startY, float goalY, float maxSpin) {
+            this.name = name;
+            this.chunkAsteroids = chunkAsteroids;
+            this.minSize = minSize;
+            this.maxSize = maxSize;
+            this.minGap = minGap;
+            this.maxGap = maxGap;
+            this.startY = startY;
+            this.goalY = goalY;
+            this.maxSpin = maxSpin;
+
+            int hash = Arrays.hashCode(chunkAsteroids);
+            hash = 31 * hash + minSize;
+            hash = 31 * hash + maxSize;
+            hash = 31 * hash + Float.floatToIntBits(minGap);
+            hash = 31 * hash + Float.floatToIntBits(maxGap);
+            hash = 31 * hash + Float.floatToIntBits(startY);
+            hash = 31 * hash + Float.floatToIntBits(goalY);
+            hash = 31 * hash + Float.floatToIntBits(maxSpin);
+            parameterHash = hash;
+        }
+    }
+
+    public static final Profile NORMAL = new Profile("normal",
+            new int[] { 24, 24, 20, 20, 20, 20, 20, 20, 20, 20, 16, 12 }, 1, 6, 0.5f, 2f, 36f, 1000f, 30f);
+
+    private static LevelGenerator instance = new LevelGenerator();
+
+    private final Profile[] cachedProfiles = new Profile[CACHE_SIZE];
+    private final LevelLayout[] cachedLayouts = new LevelLayout[CACHE_SIZE]; // most recently used first
+    private FileHandle cacheDirectory;
+
+    private LevelGenerator() {
+    }
+
+    /**
+     * @param directory where layouts are written and read, null to keep them in memory only
+     */
+    public static void setCacheDirectory(FileHandle directory) {
+        instance.cacheDirectory = directory;
+    }
+
+    /**
+     * @return the cached layout of the seed and profile, or a new one
+     */
+    public static LevelLayout getLayout(long seed, Profile profile) {
+        LevelGenerator g = instance;
+        int hit = -1;
+        for (int i = 0; i < CACHE_SIZE; i++) {
+            if (g.cachedProfiles[i] == profile && g.cachedLayouts[i].seed == seed) {
+                hit = i;
+                break;
+            }
+        }
+
+        LevelLayout layout;
+        if (hit >= 0) {
+            layout = g.cachedLayouts[hit];
+        }
+        else {
+            layout = g.loadCached(seed, profile);
+            if (layout == null) {
+                layout = generate(seed, profile);
+                g.writeCached(layout, profile);
+            }
+            hit = CACHE_SIZE - 1; // the least recently used one goes
+        }
+
+        for (int i = hit; i > 0; i--) {
+            g.cachedProfiles[i] = g.cachedProfiles[i - 1];
+            g.cachedLayouts[i] = g.cachedLayouts[i - 1];
+        }
+        g.cachedProfiles[0] = profile;
+        g.cachedLayouts[0] = layout;
+        return layout;
+    }
+
+    /**
+     * Builds the layout without looking at the cache. The same seed and profile always give the same layout.
+     */
+    public static LevelLayout generate(long seed, Profile profile) {
+        int[] chunkAsteroids = profile.chunkAsteroids;
+        int count = 0;
+        for (int num : chunkAsteroids) {
+            count += num;
+        }
+
+        RandomXS128 random = new RandomXS128(seed);
+        LevelLayout layout = new LevelLayout(seed, profile.goalY, chunkAsteroids.length, count);
+        int n = 0;
+        for (int i = 0; i < chunkAsteroids.length; i++) {
+            byte color = i % 2 == 0 ? LevelLayout.RED : LevelLayout.BLUE;
+            float y = profile.startY + profile.goalY / chunkAsteroids.length * i;
+            for (int j = 0; j < chunkAsteroids[i]; j++) {
+                int size = profile.minSize + random.nextInt(profile.maxSize - profile.minSize + 1);
+                y += size / 2f + profile.minGap + random.nextFloat() * (profile.maxGap - profile.minGap);
+                layout.xs[n] = 0.5f + random.nextFloat() * (GameSimulation.WIDTH - 1.5f);
+                layout.ys[n] = y;
+                layout.angularVelocities[n] = (random.nextFloat() * 2f - 1f) * profile.maxSpin * MathUtils.degRad;
+                layout.sizes[n] = (byte) size;
+                layout.colors[n] = color;
+                n++;
+            }
+            layout.chunkEnds[i] = n;
+        }
+        return layout;
+    }
+
+    /**
+     * The file of a seed and profile, a profile whose parameters changed under the same name gets new files.
+     */
+    private FileHandle cacheFile(long seed, Profile profile) {
+        return cacheDirectory.child("level_" + profile.name + "_" + Integer.toHexString(profile.parameterHash)
+                + "_" + Long.toHexString(seed) + ".bin");
+    }
+
+    private LevelLayout loadCached(long seed, Profile profile) {
+        if (cacheDirectory == null) {
+            return null;
+        }
+        FileHandle file = cacheFile(seed, profile);
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            return LevelLayout.read(file);
+        }
+        catch (GdxRuntimeException e) {
+            Gdx.app.error("LevelGenerator", "cannot load cached " + file.name(), e);
+            return null;
+        }
+    }
+
+    private void writeCached(LevelLayout layout, Profile profile) {
+        if (cacheDirectory == null) {
+            return;
+        }
+        try {
+            layout.write(cacheFile(layout.seed, profile));
+        }
+        catch (GdxRuntimeException e) {
+            Gdx.app.error("LevelGenerator", "cannot cache level " + layout.seed, e);
+        }
+    }
+}
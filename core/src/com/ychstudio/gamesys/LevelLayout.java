@@ -0,0 +1,127 @@
+package com.ychstudio.gamesys;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.StreamUtils;
+
+/**
+ * The asteroids of a level in flat arrays, ordered by chunk, as built by LevelGenerator.
+ * A layout is never changed after it is built, so it can be shared by every flight of its seed.
+ * File format: magic, version, seed, goal y, chunk count, asteroid count, the chunk ends,
+ * then per asteroid x, y, angular velocity as floats and size, color as bytes.
+ */
+public class LevelLayout {
+
+    public static final byte RED = 0;
+    public static final byte BLUE = 1;
+
+    private static final int MAGIC = 0x534D4C56; // "SMLV"
+    private static final int VERSION = 1;
+
+    final long seed;
+    final float goalY;
+    final int[] chunkEnds; // chunk i holds the asteroids from chunkEnds[i - 1] to chunkEnds[i]
+    final float[] xs;
+    final float[] ys;
+    final float[] angularVelocities;
+    final byte[] sizes;
+    final byte[] colors;
+
+    LevelLayout(long seed, float goalY, int chunkCount, int count) {
+        this.seed = seed;
+        this.goalY = goalY;
+        chunkEnds = new int[chunkCount];
+        xs = new float[count];
+        ys = new float[count];
+        angularVelocities = new float[count];
+        sizes = new byte[count];
+        colors = new byte[count];
+    }
+
+    public int getChunkStart(int chunk) {
+        return chunk == 0 ? 0 : chunkEnds[chunk - 1];
+    }
+
+    public int getChunkEnd(int chunk) {
+        return chunkEnds[chunk];
+    }
+
+    public int getChunkCount() {
+        return chunkEnds.length;
+    }
+
+    public int getCount() {
+        return xs.length;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public float getGoalY() {
+        return goalY;
+    }
+
+    public void write(FileHandle file) {
+        DataOutputStream out = new DataOutputStream(file.write(false, 4096));
+        try {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(seed);
+            out.writeFloat(goalY);
+            out.writeInt(chunkEnds.length);
+            out.writeInt(xs.length);
+            for (int end : chunkEnds) {
+                out.writeInt(end);
+            }
+            for (int i = 0; i < xs.length; i++) {
+                out.writeFloat(xs[i]);
+                out.writeFloat(ys[i]);
+                out.writeFloat(angularVelocities[i]);
+                out.writeByte(sizes[i]);
+                out.writeByte(colors[i]);
+            }
+        }
+        catch (IOException e) {
+            throw new GdxRuntimeException("Error writing level layout: " + file, e);
+        }
+        finally {
+            StreamUtils.closeQuietly(out);
+        }
+    }
+
+    public static LevelLayout read(FileHandle file) {
+        DataInputStream in = new DataInputStream(file.read(4096));
+        try {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                throw new GdxRuntimeException("Not a level layout or a different version: " + file);
+            }
+            long seed = in.readLong();
+            float goalY = in.readFloat();
+            int chunkCount = in.readInt();
+            int count = in.readInt();
+            LevelLayout layout = new LevelLayout(seed, goalY, chunkCount, count);
+            for (int i = 0; i < chunkCount; i++) {
+                layout.chunkEnds[i] = in.readInt();
+            }
+            for (int i = 0; i < count; i++) {
+                layout.xs[i] = in.readFloat();
+                layout.ys[i] = in.readFloat();
+                layout.angularVelocities[i] = in.readFloat();
+                layout.sizes[i] = in.readByte();
+                layout.colors[i] = in.readByte();
+            }
+            return layout;
+        }
+        catch (IOException e) {
+            throw new GdxRuntimeException("Error reading level layout: " + file, e);
+        }
+        finally {
+            StreamUtils.closeQuietly(in);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.ychstudio.gamesys;
+
+/**
+ * The control state of the player for the next simulation step.
+ * The left throttle turns the ship clockwise, the right throttle counterclockwise, both push it forward.
+ */
+public class PlayerInput {
+
+    public boolean leftThrottle;
+    public boolean rightThrottle;
+
+    public void set(boolean leftThrottle, boolean rightThrottle) {
+        this.leftThrottle = leftThrottle;
+        this.rightThrottle = rightThrottle;
+    }
+
+    public void clear() {
+        leftThrottle = false;
+        rightThrottle = false;
+    }
+}
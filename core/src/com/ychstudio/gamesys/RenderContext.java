@@ -0,0 +1,124 @@
+package com.ychstudio.gamesys;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.utils.viewport.Viewport;
+
+/**
+ * The SpriteBatch shared by every screen, HUD and Stage for the lifetime of the app.
+ * Batches drawn through begin/end and drawStage are counted, getFrameFlushes() returns the count of the last frame.
+ * The RenderQueue of getQueue() is drawn into the batch by the passes that use it.
+ */
+public class RenderContext {
+
+    private static RenderContext instance;
+
+    private final SpriteBatch batch;
+    private final RenderQueue queue = new RenderQueue();
+    private final Matrix4 screenProjection = new Matrix4();
+
+    private int flushes;
+    private int frameFlushes;
+
+    private RenderContext() {
+        batch = new SpriteBatch();
+        screenProjection.setToOrtho2D(0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+    }
+
+    /**
+     * Creates the shared batch, needs a GL context.
+     */
+    public static void create() {
+        if (instance == null) {
+            instance = new RenderContext();
+        }
+    }
+
+    public static SpriteBatch getBatch() {
+        return instance.batch;
+    }
+
+    public static RenderQueue getQueue() {
+        return instance.queue;
+    }
+
+    /**
+     * Creates a Stage drawing with the shared batch. Disposing the Stage leaves the batch alone.
+     */
+    public static Stage createStage(Viewport viewport) {
+        return new Stage(viewport, instance.batch);
+    }
+
+    public static void resize(int width, int height) {
+        instance.screenProjection.setToOrtho2D(0, 0, width, height);
+    }
+
+    /**
+     * Begins a pass in the world coordinates of the camera.
+     */
+    public static SpriteBatch beginWorld(Camera camera) {
+        instance.batch.setProjectionMatrix(camera.combined);
+        instance.batch.begin();
+        return instance.batch;
+    }
+
+    /**
+     * Begins a pass in pixels, with the origin at the bottom left of the window.
+     */
+    public static SpriteBatch beginScreen() {
+        instance.batch.setProjectionMatrix(instance.screenProjection);
+        instance.batch.begin();
+        return instance.batch;
+    }
+
+    /**
+     * Switches a running pass to screen coordinates, flushing what was drawn in world coordinates.
+     */
+    public static void switchToScreen() {
+        instance.batch.setProjectionMatrix(instance.screenProjection);
+    }
+
+    public static void end() {
+        instance.batch.end();
+        countFlushes();
+    }
+
+    public static void drawStage(Stage stage) {
+        stage.draw();
+        countFlushes();
+    }
+
+    /**
+     * Counts the flushes of a pass begun and ended outside of RenderContext, must be called right after its end().
+     */
+    public static void countFlushes() {
+        instance.flushes += instance.batch.renderCalls;
+    }
+
+    /**
+     * Counts a draw call made without the batch.
+     */
+    public static void countDrawCall() {
+        instance.flushes++;
+    }
+
+    public static void endFrame() {
+        instance.frameFlushes = instance.flushes;
+        instance.flushes = 0;
+        instance.queue.endFrame();
+    }
+
+    public static int getFrameFlushes() {
+        return instance.frameFlushes;
+    }
+
+    public static void dispose() {
+        if (instance != null) {
+            instance.batch.dispose();
+            instance = null;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.ychstudio.gamesys;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/**
+ * Collects the quads of a pass by layer and draws them with flush(): layer by layer, and within a layer
+ * grouped by texture, so every texture is bound once per layer instead of once per change in submission order.
+ * Only the layers are ordered, two quads of a layer with different textures may be drawn in either order;
+ * quads of the same texture keep their submission order.
+ * Anything that cannot be a quad, such as a particle effect, is submitted as a Command.
+ * Texture switches are counted per frame, both as drawn and as they would have been in submission order.
+ */
+public class RenderQueue {
+
+    // world layers, back to front
+    public static final int SKY = 0;
+    public static final int BACKGROUND = 1;
+    public static final int ACTORS = 2;
+    public static final int EFFECTS = 3;
+    public static final int GROUND = 4;
+    public static final int OVERLAY = 5;
+
+    // screen layers
+    public static final int HUD = 6;
+    public static final int HUD_FRAMES = 7;
+
+    private static final int VERTEX_FLOATS = 20; // 4 vertices of x, y, color, u, v
+    private static final float WHITE = Color.WHITE.toFloatBits();
+
+    /**
+     * Draws straight into the batch when the queue reaches it.
+     */
+    public interface Command {
+        void draw(SpriteBatch batch);
+    }
+
+    private int size;
+    private long[] keys; // layer, texture order, submission index
+    private Texture[] textures;
+    private Command[] commands;
+    private float[] vertices;
+
+    // textures in the order they were first submitted since the last flush, 0 is commands without a texture
+    private final ObjectIntMap<Texture> textureOrder = new ObjectIntMap<>();
+
+    private Texture lastSubmitted;
+    private int switches;
+    private int submittedSwitches;
+    private int frameSwitches;
+    private int frameSubmittedSwitches;
+
+    public RenderQueue() {
+        allocate(64);
+    }
+
+    private void allocate(int capacity) {
+        long[] oldKeys = keys;
+        Texture[] oldTextures = textures;
+        Command[] oldCommands = commands;
+        float[] oldVertices = vertices;
+
+        keys = new long[capacity];
+        textures = new Texture[capacity];
+        commands = new Command[capacity];
+        vertices = new float[capacity * VERTEX_FLOATS];
+
+        if (oldKeys != null) {
+            System.arraycopy(oldKeys, 0, keys, 0, size);
+            System.arraycopy(oldTextures, 0, textures, 0, size);
+            System.arraycopy(oldCommands, 0, commands, 0, size);
+            System.arraycopy(oldVertices, 0, vertices, 0, size * VERTEX_FLOATS);
+        }
+    }
+
+    /**
+     * @return the offset of the entry's vertices
+     */
+    private int add(int layer, Texture texture, Command command) {
+        if (size == keys.length) {
+            allocate(size * 2);
+        }
+        int order = 0;
+        if (texture != null) {
+            order = textureOrder.get(texture, 0);
+            if (order == 0) {
+                order = textureOrder.size + 1;
+                textureOrder.put(texture, order);
+            }
+            if (texture != lastSubmitted) {
+                submittedSwitches++;
+            }
+        }
+        lastSubmitted = texture;
+
+        int i = size++;
+        keys[i] = (long) layer << 48 | (long) order << 32 | i;
+        textures[i] = texture;
+        commands[i] = command;
+        return i * VERTEX_FLOATS;
+    }
+
+    /**
+     * Queues the sprite as it is now.
+     */
+    public void submit(int layer, Sprite sprite) {
+        int offset = add(layer, sprite.getTexture(), null);
+        System.arraycopy(sprite.getVertices(), 0, vertices, offset, VERTEX_FLOATS);
+    }
+
+    /**
+     * Queues a quad like SpriteBatch.draw(Texture, x, y, width, height).
+     */
+    public void submit(int layer, Texture texture, float x, float y, float width, float height) {
+        submit(layer, texture, x, y, width, height, 0, 1, 1, 0);
+    }
+
+    /**
+     * Queues a quad like SpriteBatch.draw(Texture, x, y, width, height, u, v, u2, v2).
+     */
+    public void submit(int layer, Texture texture, float x, float y, float width, float height,
+            float u, float v, float u2, float v2) {
+        int offset = add(layer, texture, null);
+        float x2 = x + width;
+        float y2 = y + height;
+        putVertex(offset, x, y, u, v);
+        putVertex(offset + 5, x, y2, u, v2);
+        putVertex(offset + 10, x2, y2, u2, v2);
+        putVertex(offset + 15, x2, y, u2, v);
+    }
+
+    /**
+     * Queues a rotated region like SpriteBatch.draw(TextureRegion, x, y, originX, originY, width, height, 1, 1, rotation).
+     * @param rotation in degrees
+     */
+    public void submit(int layer, TextureRegion region, float x, float y, float originX, float originY,
+            float width, float height, float rotation) {
+        int offset = add(layer, region.getTexture(), null);
+
+        // the corners relative to the origin
+        float left = -originX;
+        float bottom = -originY;
+        float right = width - originX;
+        float top = height - originY;
+        float worldOriginX = x + originX;
+        float worldOriginY = y + originY;
+
+        float cos = MathUtils.cosDeg(rotation);
+        float sin = MathUtils.sinDeg(rotation);
+        float x1 = cos * left - sin * bottom + worldOriginX;
+        float y1 = sin * left + cos * bottom + worldOriginY;
+        float x2 = cos * left - sin * top + worldOriginX;
+        float y2 = sin * left + cos * top + worldOriginY;
+        float x3 = cos * right - sin * top + worldOriginX;
+        float y3 = sin * right + cos * top + worldOriginY;
+        float x4 = x1 + (x3 - x2);
+        float y4 = y3 - (y2 - y1);
+
+        putVertex(offset, x1, y1, region.getU(), region.getV2());
+        putVertex(offset + 5, x2, y2, region.getU(), region.getV());
+        putVertex(offset + 10, x3, y3, region.getU2(), region.getV());
+        putVertex(offset + 15, x4, y4, region.getU2(), region.getV2());
+    }
+
+    /**
+     * Queues a command that draws by itself.
+     * @param texture the texture the command mostly draws with, so it is grouped with quads of that texture, or null
+     */
+    public void submit(int layer, Texture texture, Command command) {
+        add(layer, texture, command);
+    }
+
+    private void putVertex(int offset, float x, float y, float u, float v) {
+        vertices[offset] = x;
+        vertices[offset + 1] = y;
+        vertices[offset + 2] = WHITE;
+        vertices[offset + 3] = u;
+        vertices[offset + 4] = v;
+    }
+
+    /**
+     * Draws and clears the queue, the batch must have begun.
+     */
+    public void flush(SpriteBatch batch) {
+        sort();
+
+        Texture bound = null;
+        for (int k = 0; k < size; k++) {
+            int i = (int) keys[k];
+            if (commands[i] != null) {
+                commands[i].draw(batch);
+                bound = null; // whatever the command drew with
+            }
+            else {
+                if (textures[i] != bound) {
+                    bound = textures[i];
+                    switches++;
+                }
+                batch.draw(bound, vertices, i * VERTEX_FLOATS, VERTEX_FLOATS);
+            }
+            textures[i] = null;
+            commands[i] = null;
+        }
+
+        size = 0;
+        textureOrder.clear();
+        lastSubmitted = null;
+    }
+
+    /**
+     * Insertion sort, the keys mostly come in order and it does not allocate.
+     */
+    private void sort() {
+        long[] keys = this.keys;
+        for (int i = 1; i < size; i++) {
+            long key = keys[i];
+            int j = i - 1;
+            while (j >= 0 && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            keys[j + 1] = key;
+        }
+    }
+
+    /**
+     * Keeps the counts of the frame, see getFrameSwitches().
+     */
+    public void endFrame() {
+        frameSwitches = switches;
+        frameSubmittedSwitches = submittedSwitches;
+        switches = 0;
+        submittedSwitches = 0;
+    }
+
+    /**
+     * @return how often the texture changed between the quads drawn by flush() in the last frame
+     */
+    public int getFrameSwitches() {
+        return frameSwitches;
+    }
+
+    /**
+     * @return how often the texture would have changed in the last frame if the quads were drawn in submission order
+     */
+    public int getFrameSubmittedSwitches() {
+        return frameSubmittedSwitches;
+    }
+}
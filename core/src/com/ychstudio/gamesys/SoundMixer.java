@@ -0,0 +1,263 @@
+package com.ychstudio.gamesys;
+
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Plays short sounds with a limited number of voices per Sound.
+ * play() only queues the sound, update() starts the queued sounds once per frame:
+ * plays of the same Sound and pitch in one frame are merged into one louder voice, and when all voices of a Sound
+ * are busy the lowest priority voice is stopped for a play of at least the same priority, otherwise the play is dropped.
+ * Looping sounds go through Loop, which only talks to the Sound when its state changes.
+ */
+public class SoundMixer {
+
+    public static final int DEFAULT_VOICES = 4;
+    public static final float DEFAULT_DURATION = 1f; // seconds a voice is considered busy
+    public static final int MAX_PENDING = 32; // queued plays per frame
+    public static final float MERGE_GAIN = 0.3f; // volume added for every merged play, relative to the loudest
+    public static final float MERGE_PITCH_EPSILON = 0.01f; // plays whose pitches differ by more are not merged
+
+    /**
+     * A looping voice that is paused and resumed instead of started again.
+     */
+    public static class Loop {
+        private final Sound sound;
+        private final float volume;
+        private final float pitch;
+        private final float pan;
+        private long id = -1;
+        private boolean wanted;
+        private boolean playing;
+
+        public Loop(Sound sound, float volume, float pitch, float pan) {
+            this.sound = sound;
+            this.volume = volume;
+            this.pitch = pitch;
+            this.pan = pan;
+        }
+
+        /**
+         * Takes effect on the next SoundMixer.update(), setting the same state again does nothing.
+         */
+        public void setPlaying(boolean playing) {
+            wanted = playing;
+            if (wanted != this.playing) {
+                instance.addLoop(this);
+            }
+        }
+
+        private void apply() {
+            if (wanted == playing) {
+                return;
+            }
+            if (wanted) {
+                if (id < 0) {
+                    id = sound.loop(volume * GM.soundVolume, pitch, pan);
+                }
+                else {
+                    sound.resume(id);
+                }
+            }
+            else if (id >= 0) {
+                sound.pause(id);
+            }
+            playing = wanted;
+        }
+
+        public void stop() {
+            if (id >= 0) {
+                sound.stop(id);
+            }
+            id = -1;
+            wanted = false;
+            playing = false;
+        }
+    }
+
+    private static class Channel {
+        final float duration;
+        final long[] ids;
+        final double[] endTimes;
+        final int[] priorities;
+
+        Channel(int voices, float duration) {
+            this.duration = duration;
+            ids = new long[voices];
+            endTimes = new double[voices];
+            priorities = new int[voices];
+        }
+    }
+
+    private static class Pending {
+        Sound sound;
+        float volume;
+        float pitch;
+        float panSum;
+        int priority;
+        int count;
+    }
+
+    private static SoundMixer instance = new SoundMixer();
+
+    private ObjectMap<Sound, Channel> channels;
+    private final Pending[] pending;
+    private int pendingCount;
+    private final Loop[] changedLoops;
+    private int changedLoopCount;
+    private double time; // seconds of update() deltas, a float drifts within hours of play
+
+    private int played;
+    private int merged;
+    private int dropped;
+    private int stolen;
+
+    private SoundMixer() {
+        channels = new ObjectMap<>();
+        pending = new Pending[MAX_PENDING];
+        for (int i = 0; i < pending.length; i++) {
+            pending[i] = new Pending();
+        }
+        changedLoops = new Loop[MAX_PENDING];
+    }
+
+    /**
+     * Sets how many voices of the sound may play at once and how long each of them lasts.
+     */
+    public static void setVoices(Sound sound, int voices, float duration) {
+        instance.channels.put(sound, new Channel(voices, duration));
+    }
+
+    /**
+     * Forgets the voices and the queued plays of a sound that is about to be unloaded.
+     */
+    public static void release(Sound sound) {
+        SoundMixer m = instance;
+        m.channels.remove(sound);
+        for (int i = m.pendingCount - 1; i >= 0; i--) {
+            if (m.pending[i].sound == sound) {
+                Pending p = m.pending[i];
+                m.pending[i] = m.pending[m.pendingCount - 1];
+                m.pending[m.pendingCount - 1] = p;
+                p.sound = null;
+                m.pendingCount--;
+            }
+        }
+    }
+
+    /**
+     * Queues the sound for the next update(), the volume is multiplied with GM.soundVolume.
+     * @param priority a higher priority play may stop a lower priority voice of the same sound
+     */
+    public static void play(Sound sound, float volume, float pitch, float pan, int priority) {
+        SoundMixer m = instance;
+        for (int i = 0; i < m.pendingCount; i++) {
+            Pending p = m.pending[i];
+            if (p.sound == sound && Math.abs(p.pitch - pitch) <= MERGE_PITCH_EPSILON) {
+                p.volume = Math.max(p.volume, volume);
+                p.panSum += pan;
+                p.priority = Math.max(p.priority, priority);
+                p.count++;
+                m.merged++;
+                return;
+            }
+        }
+        if (m.pendingCount == MAX_PENDING) {
+            m.dropped++;
+            return;
+        }
+        Pending p = m.pending[m.pendingCount++];
+        p.sound = sound;
+        p.volume = volume;
+        p.pitch = pitch;
+        p.panSum = pan;
+        p.priority = priority;
+        p.count = 1;
+    }
+
+    private void addLoop(Loop loop) {
+        for (int i = 0; i < changedLoopCount; i++) {
+            if (changedLoops[i] == loop) {
+                return;
+            }
+        }
+        if (changedLoopCount < changedLoops.length) {
+            changedLoops[changedLoopCount++] = loop;
+        }
+        else {
+            loop.apply();
+        }
+    }
+
+    /**
+     * Starts the plays queued during the frame and applies the loop changes, must be called once per frame.
+     */
+    public static void update(float delta) {
+        SoundMixer m = instance;
+        m.time += delta;
+
+        for (int i = 0; i < m.changedLoopCount; i++) {
+            m.changedLoops[i].apply();
+            m.changedLoops[i] = null;
+        }
+        m.changedLoopCount = 0;
+
+        for (int i = 0; i < m.pendingCount; i++) {
+            Pending p = m.pending[i];
+            float volume = Math.min(1f, p.volume * (1f + MERGE_GAIN * (p.count - 1)));
+            m.start(p.sound, volume, p.pitch, p.panSum / p.count, p.priority);
+            p.sound = null;
+        }
+        m.pendingCount = 0;
+    }
+
+    private void start(Sound sound, float volume, float pitch, float pan, int priority) {
+        Channel channel = channels.get(sound);
+        if (channel == null) {
+            channel = new Channel(DEFAULT_VOICES, DEFAULT_DURATION);
+            channels.put(sound, channel);
+        }
+
+        // a free voice, or else the lowest priority one that started first
+        int voice = -1;
+        for (int i = 0; i < channel.ids.length; i++) {
+            if (channel.endTimes[i] <= time) {
+                voice = i;
+                break;
+            }
+            if (voice < 0 || channel.priorities[i] < channel.priorities[voice]
+                    || (channel.priorities[i] == channel.priorities[voice] && channel.endTimes[i] < channel.endTimes[voice])) {
+                voice = i;
+            }
+        }
+        if (channel.endTimes[voice] > time) {
+            if (channel.priorities[voice] > priority) {
+                dropped++;
+                return;
+            }
+            sound.stop(channel.ids[voice]);
+            stolen++;
+        }
+
+        channel.ids[voice] = sound.play(volume * GM.soundVolume, pitch, pan);
+        channel.endTimes[voice] = time + channel.duration;
+        channel.priorities[voice] = priority;
+        played++;
+    }
+
+    public static int getPlayed() {
+        return instance.played;
+    }
+
+    public static int getMerged() {
+        return instance.merged;
+    }
+
+    public static int getDropped() {
+        return instance.dropped;
+    }
+
+    public static int getStolen() {
+        return instance.stolen;
+    }
+}
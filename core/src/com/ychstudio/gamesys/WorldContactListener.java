@@ -1,51 +1,24 @@
 package com.ychstudio.gamesys;
 
 import com.badlogic.gdx.physics.box2d.*;
-import com.ychstudio.actors.Asteroid;
-import com.ychstudio.actors.Player;
 
+/**
+ * Only records contacts while the World is stepping, GameSimulation dispatches them after world.step.
+ */
 public class WorldContactListener implements ContactListener{
+    
+    private ContactEventQueue queue;
+    
+    public WorldContactListener(ContactEventQueue queue) {
+        this.queue = queue;
+    }
 
     @Override
     public void beginContact(Contact contact) {
         Fixture fixtureA = contact.getFixtureA();
         Fixture fixtureB = contact.getFixtureB();
-        short categoryBitsA = fixtureA.getFilterData().categoryBits;
-        short categoryBitsB = fixtureB.getFilterData().categoryBits;
-        
-        if (categoryBitsA == GM.PLAYER_CATEGORY_BITS || categoryBitsB == GM.PLAYER_CATEGORY_BITS) {
-            if (categoryBitsA == GM.PLAYER_CATEGORY_BITS) {
-                Player player = (Player) fixtureA.getBody().getUserData();
-                
-                switch(categoryBitsB) {
-                    case GM.GROUND_CATEGORY_BITS:
-                        player.hitGround();
-                        break;
-                    case GM.ASTEROID_CATEGORY_BITS:
-                        Asteroid asteroid = (Asteroid) fixtureB.getBody().getUserData();
-                        asteroid.explode();
-                        player.getDamaged(asteroid.getDamage());
-                        break;
-                }
-                
-            }
-            else {
-                Player player = (Player) fixtureB.getBody().getUserData();
-                
-                switch(categoryBitsA) {
-                    case GM.GROUND_CATEGORY_BITS:
-                        player.hitGround();
-                        break;
-                    case GM.ASTEROID_CATEGORY_BITS:
-                        Asteroid asteroid = (Asteroid) fixtureA.getBody().getUserData();
-                        asteroid.explode();
-                        player.getDamaged(asteroid.getDamage());
-                        break;
-                }
-
-            }
-        }
-        
+        queue.add(fixtureA.getFilterData().categoryBits, fixtureA.getBody(),
+                fixtureB.getFilterData().categoryBits, fixtureB.getBody());
     }
 
     @Override
@@ -60,7 +33,15 @@ public class WorldContactListener implements ContactListener{
 
     @Override
     public void postSolve(Contact contact, ContactImpulse impulse) {
-        
+        if (queue.isEmpty()) {
+            return;
+        }
+        float[] normalImpulses = impulse.getNormalImpulses();
+        float max = 0;
+        for (int i = 0; i < impulse.getCount(); i++) {
+            max = Math.max(max, normalImpulses[i]);
+        }
+        queue.addImpulse(contact.getFixtureA().getBody(), contact.getFixtureB().getBody(), max);
     }
 
 }
@@ -0,0 +1,112 @@
+package com.ychstudio.screens;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.kotcrab.vis.ui.VisUI;
+import com.ychstudio.gamesys.AssetManifest;
+import com.ychstudio.gamesys.GM;
+import com.ychstudio.gamesys.RenderContext;
+
+/**
+ * The first screen. Loads assets for at most LOAD_BUDGET_MS per frame and shows the progress
+ * until the manifest of the next screen is loaded, SpaceMission then switches to that screen.
+ * The screen holds a reference to the manifest while it is shown.
+ */
+public class LoadingScreen implements Screen {
+
+    public static final int LOAD_BUDGET_MS = 12;
+
+    private AssetManager assetManager;
+
+    private BitmapFont font;
+    private Texture barTexture;
+    private float barWidth = 240f;
+    private float barHeight = 8f;
+
+    private Color barColor = new Color(0.8f, 0.8f, 0.5f, 1.0f);
+    private Color barFrameColor = new Color(0.3f, 0.3f, 0.3f, 1.0f);
+
+    private AssetManifest manifest;
+    private boolean loaded;
+
+    public LoadingScreen(AssetManifest manifest) {
+        this.manifest = manifest;
+        assetManager = GM.getAssetManager();
+    }
+
+    @Override
+    public void show() {
+        font = VisUI.getSkin().getFont("default-font");
+
+        Pixmap pixmap = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
+        pixmap.setColor(Color.WHITE);
+        pixmap.fill();
+        barTexture = new Texture(pixmap);
+        pixmap.dispose();
+
+        manifest.load(assetManager);
+        loaded = false;
+    }
+
+    public void update(float delta) {
+        if (!loaded) {
+            assetManager.update(LOAD_BUDGET_MS);
+            loaded = manifest.isLoaded(assetManager);
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @Override
+    public void render(float delta) {
+        update(delta);
+
+        Gdx.gl.glClearColor(0.1f, 0.1f, 0.15f, 1.0f);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+
+        float x = (Gdx.graphics.getWidth() - barWidth) / 2;
+        float y = Gdx.graphics.getHeight() / 2;
+
+        SpriteBatch batch = RenderContext.beginScreen();
+        batch.setColor(barFrameColor);
+        batch.draw(barTexture, x, y, barWidth, barHeight);
+        batch.setColor(barColor);
+        batch.draw(barTexture, x, y, barWidth * assetManager.getProgress(), barHeight);
+        batch.setColor(Color.WHITE);
+        font.draw(batch, "Loading...", x, y + barHeight + 24f);
+        RenderContext.end();
+    }
+
+    @Override
+    public void resize(int width, int height) {
+    }
+
+    @Override
+    public void pause() {
+    }
+
+    @Override
+    public void resume() {
+    }
+
+    @Override
+    public void hide() {
+        dispose();
+    }
+
+    @Override
+    public void dispose() {
+        manifest.unload(assetManager);
+        barTexture.dispose();
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.ychstudio.screens;
+
+import com.badlogic.gdx.Screen;
+import com.ychstudio.gamesys.AssetManifest;
+
+/**
+ * A screen whose assets are loaded by SpaceMission.setScreen before show() and released after it is hidden.
+ */
+public interface ManifestScreen extends Screen {
+
+    AssetManifest getAssetManifest();
+}
@@ -2,16 +2,12 @@ package com.ychstudio.screens;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
-import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
-import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.actions.Actions;
 import com.badlogic.gdx.scenes.scene2d.ui.Image;
@@ -19,12 +15,22 @@ import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.viewport.FitViewport;
 import com.ychstudio.SpaceMission;
+import com.ychstudio.gamesys.AssetManifest;
+import com.ychstudio.gamesys.FontService;
 import com.ychstudio.gamesys.GM;
+import com.ychstudio.gamesys.RenderContext;
 
-public class MenuScreen implements Screen {
+public class MenuScreen implements ManifestScreen {
+    
+    private static final FontService.Style OPTION_FONT = new FontService.Style(30);
+    private static final FontService.Style TITLE_FONT = new FontService.Style(64,
+            new Color(0.8f, 0.8f, 0.8f, 1.0f), 2.8f, new Color(0.6f, 0.6f, 0.6f, 1.0f));
+    
+    public static final AssetManifest MANIFEST = new AssetManifest("menu")
+            .add("images/Stars.png", Texture.class)
+            .add("audio/Menu.mp3", Sound.class);
     
     private SpaceMission game;
-    private SpriteBatch batch;
     
     private FitViewport viewport;
     private Stage stage;
@@ -48,28 +54,20 @@ public class MenuScreen implements Screen {
         assetManager = GM.getAssetManager();
     }
 
+    @Override
+    public AssetManifest getAssetManifest() {
+        return MANIFEST;
+    }
+
     @Override
     public void show() {
-        batch = new SpriteBatch();
-        
         menuSound = GM.getAssetManager().get("audio/Menu.mp3", Sound.class);
         
-        FreeTypeFontGenerator generator = new FreeTypeFontGenerator(Gdx.files.internal("font/MONOFONT.TTF"));
-        FreeTypeFontParameter parameter = new FreeTypeFontParameter();
-        parameter.magFilter = Texture.TextureFilter.Linear;
-        parameter.magFilter = Texture.TextureFilter.Linear;
-        parameter.size = 30;
-        monoFont30 = generator.generateFont(parameter);
-
-        parameter.size = 64;
-        parameter.color = new Color(0.8f, 0.8f, 0.8f, 1.0f);
-        parameter.borderWidth = 2.8f;
-        parameter.borderColor = new Color(0.6f, 0.6f, 0.6f, 1.0f);
-        monoFont64 = generator.generateFont(parameter);
-        generator.dispose();
+        monoFont30 = FontService.getFont(OPTION_FONT);
+        monoFont64 = FontService.getFont(TITLE_FONT);
 
         viewport = new FitViewport(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
-        stage = new Stage(viewport, batch);
+        stage = RenderContext.createStage(viewport);
         
         Image starsImage = new Image(assetManager.get("images/Stars.png", Texture.class));
         stage.addActor(starsImage);
@@ -135,7 +133,7 @@ public class MenuScreen implements Screen {
         
         Gdx.gl.glClearColor(0.1f, 0.1f, 0.15f, 1f);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
-        stage.draw();
+        RenderContext.drawStage(stage);
     }
 
     @Override
@@ -160,10 +158,7 @@ public class MenuScreen implements Screen {
 
     @Override
     public void dispose() {
-        monoFont30.dispose();
-        monoFont64.dispose();
         stage.dispose();
-        batch.dispose();
         
     }
 
@@ -2,7 +2,8 @@ package com.ychstudio.screens;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
-import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
@@ -12,32 +13,55 @@ import com.badlogic.gdx.graphics.g2d.ParticleEffect;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
-import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
-import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
 import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Box2DDebugRenderer;
-import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Label.LabelStyle;
 import com.badlogic.gdx.utils.Align;
-import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.Scaling;
 import com.badlogic.gdx.utils.viewport.FitViewport;
+import com.badlogic.gdx.utils.viewport.ScalingViewport;
 import com.kotcrab.vis.ui.VisUI;
 import com.ychstudio.SpaceMission;
-import com.ychstudio.actors.Actor;
-import com.ychstudio.actors.Asteroid;
-import com.ychstudio.actors.Ground;
 import com.ychstudio.actors.Player;
 import com.ychstudio.background.Background;
 import com.ychstudio.gamesys.ActorBuilder;
+import com.ychstudio.gamesys.AssetManifest;
+import com.ychstudio.gamesys.AsteroidRenderer;
+import com.ychstudio.gamesys.FontService;
+import com.ychstudio.gamesys.FrameProfiler;
+import com.ychstudio.gamesys.FrameProfiler.Phase;
 import com.ychstudio.gamesys.GM;
-import com.ychstudio.gamesys.WorldContactListener;
+import com.ychstudio.gamesys.GameEventListener;
+import com.ychstudio.gamesys.GameSimulation;
+import com.ychstudio.gamesys.InputRecording;
+import com.ychstudio.gamesys.RenderContext;
+import com.ychstudio.gamesys.RenderQueue;
+import com.ychstudio.gamesys.SoundMixer;
+import com.ychstudio.screens.huds.PlayerInfoText;
 import com.ychstudio.screens.huds.StatusHud;
 
 
-public class PlayScreen implements Screen{
+public class PlayScreen implements ManifestScreen, GameEventListener {
+    public static final AssetManifest MANIFEST = new AssetManifest("play")
+            .add("images/actors.pack", TextureAtlas.class)
+            .add("images/Stars.png", Texture.class)
+            .add("images/EarthBackground.png", Texture.class)
+            .add("images/Earth.png", Texture.class)
+            .add("particles/explode.particle", ParticleEffect.class)
+            .add("particles/asteroid_explode.particle", ParticleEffect.class)
+            .add("particles/asteroid_explode_small.particle", ParticleEffect.class)
+            .add("particles/asteroid_explode_medium.particle", ParticleEffect.class)
+            .add("audio/Throttle.mp3", Sound.class)
+            .add("audio/Explosion1.ogg", Sound.class)
+            .add("audio/Explosion2.ogg", Sound.class);
+    
+    private static final FontService.Style INFO_FONT = new FontService.Style(24);
+    private static final FontService.Style BANNER_FONT = new FontService.Style(64,
+            new Color(0.8f, 0.8f, 0.9f, 1.0f), 2.8f, new Color(0.6f, 0.6f, 0.7f, 1.0f));
+    
     public final float WIDTH = 20f;
     public final float HEIGHT = 30f;
     
@@ -55,27 +79,55 @@ public class PlayScreen implements Screen{
     private Label gameOverLabel;
     
     private boolean showPlayerInfo = false;
+    private PlayerInfoText playerInfoText;
     
     private float gameOverCountDown = 1.0f;
     
     private FitViewport viewport;
     private OrthographicCamera camera;
     
-    private World world;
+    private GameSimulation simulation;
     private Box2DDebugRenderer box2DDebugRenderer;
+    private AsteroidRenderer asteroidRenderer; // null when the backend cannot draw instanced
     private boolean showBox2DDebugRenderer = false;
     
     private boolean paused;
     private boolean player_paused;
-    private boolean goal;
     
-    private float goalY = 1000f; // the y position of goal
-    
-    private Array<Actor> actors;
     private Player player;
-    private Ground ground;
     
-    private Array<ParticleEffect> particleEffects;
+    private Sound playerExplosionSound;
+    private Sound asteroidExplosionSound;
+    private SoundMixer.Loop leftThrottleLoop;
+    private SoundMixer.Loop rightThrottleLoop;
+    
+    private final int effectPoolSize = 16;
+    
+    // what the queued commands of the current frame draw with
+    private float renderDelta;
+    private float renderAlpha;
+    private float viewBottom;
+    private float viewTop;
+    
+    private final RenderQueue.Command asteroidCommand = new RenderQueue.Command() {
+        @Override
+        public void draw(SpriteBatch batch) {
+            // the instanced draw uses its own shader and buffers, outside of the batch
+            RenderContext.end();
+            asteroidRenderer.render(camera.combined, simulation.getAsteroids(), renderAlpha, viewBottom, viewTop);
+            RenderContext.countDrawCall();
+            RenderContext.beginWorld(camera);
+        }
+    };
+    
+    private final RenderQueue.Command particleCommand = new RenderQueue.Command() {
+        @Override
+        public void draw(SpriteBatch batch) {
+            FrameProfiler.begin(Phase.PARTICLES);
+            simulation.getRenderSystem().renderEffects(batch, renderDelta);
+            FrameProfiler.end(Phase.PARTICLES);
+        }
+    };
     
     private Background background;
 
@@ -88,33 +140,26 @@ public class PlayScreen implements Screen{
         this.game = game;
     }
 
+    @Override
+    public AssetManifest getAssetManifest() {
+        return MANIFEST;
+    }
+
     @Override
     public void show() {
-        batch = new SpriteBatch();
+        batch = RenderContext.getBatch();
         
         TextureAtlas textureAtlas = GM.getAssetManager().get("images/actors.pack", TextureAtlas.class);
         keysSprite = new Sprite(textureAtlas.findRegion("Keys"));
         keysSprite.setBounds(8.5f, 0.5f, 3f, 1f);
 
-        FreeTypeFontGenerator fontGenerator = new FreeTypeFontGenerator(Gdx.files.internal("font/MONOFONT.TTF"));
-        FreeTypeFontParameter fontParameter = new FreeTypeFontParameter();
-        fontParameter.size = 24;
-        fontParameter.magFilter = Texture.TextureFilter.Linear;
-        fontParameter.minFilter = Texture.TextureFilter.Linear;
-        
-        monoFont24 = fontGenerator.generateFont(fontParameter);
-        
-        fontParameter.size = 64;
-        fontParameter.color = new Color(0.8f, 0.8f, 0.9f, 1.0f);
-        fontParameter.borderColor = new Color(0.6f, 0.6f, 0.7f, 1.0f);
-        fontParameter.borderWidth = 2.8f;
-        
-        monoFont64 = fontGenerator.generateFont(fontParameter);        
-        fontGenerator.dispose();
+        monoFont24 = FontService.getFont(INFO_FONT);
+        monoFont64 = FontService.getFont(BANNER_FONT);
 
         LabelStyle labelStyle = new LabelStyle(monoFont24, Color.WHITE);
 
-        stage = new Stage();
+        stage = RenderContext.createStage(new ScalingViewport(Scaling.stretch, Gdx.graphics.getWidth(), Gdx.graphics.getHeight()));
+        playerInfoText = new PlayerInfoText();
         playerSpeedLabel = new Label("Speed:", VisUI.getSkin());
         playerSpeedLabel.setPosition(6f, Gdx.graphics.getHeight() - 82f);
         playerPositionLabel = new Label("Pos:", VisUI.getSkin());
@@ -156,57 +201,50 @@ public class PlayScreen implements Screen{
         camera.zoom = 0.4f;
         camera.translate(WIDTH/2, HEIGHT/2 * camera.zoom);
         
-        world = new World(new Vector2(0, -20f), true);
-        world.setContactListener(new WorldContactListener());
+        Sound throttleSound = GM.getAssetManager().get("audio/Throttle.mp3", Sound.class);
+        playerExplosionSound = GM.getAssetManager().get("audio/Explosion1.ogg", Sound.class);
+        asteroidExplosionSound = GM.getAssetManager().get("audio/Explosion2.ogg", Sound.class);
+        leftThrottleLoop = new SoundMixer.Loop(throttleSound, 1f, 1f, -0.5f);
+        rightThrottleLoop = new SoundMixer.Loop(throttleSound, 1f, 1f, 0.5f);
+        // Explosion2 lasts 0.6 s at pitch 1, big asteroids play it at down to half pitch
+        SoundMixer.setVoices(asteroidExplosionSound, 6, 1.25f);
+        SoundMixer.setVoices(playerExplosionSound, 1, 2f);
+        
         box2DDebugRenderer = new Box2DDebugRenderer();
+        if (AsteroidRenderer.isSupported()) {
+            asteroidRenderer = new AsteroidRenderer();
+        }
         
-        actors = new Array<>();
-        particleEffects = new Array<>();
-
-        ActorBuilder.setWorld(world);
-
-        player = ActorBuilder.createPlayer(this, WIDTH/2, 2.5f);
-        ground = ActorBuilder.createGround(WIDTH/2, 1f);
+        ActorBuilder.setAssetManager(GM.getAssetManager());
+        ActorBuilder.prepareEffectPools(effectPoolSize);
 
-        gameRestart();
+        simulation = new GameSimulation(this);
+        // the camera stays within HEIGHT / 2 of a point a quarter of the screen above the player
+        simulation.setView(HEIGHT / 4f, HEIGHT / 2f);
+        // every flight is recorded for F5, in a new World so that the recording replays to the same end state
+        simulation.setFreshWorld(true);
+        simulation.setRecordInput(true);
+        player = simulation.getPlayer();
 
-        background = new Background(batch, WIDTH, HEIGHT);
+        background = new Background(WIDTH, HEIGHT);
         
         statusHud = new StatusHud();
         
         paused = false;
         player_paused = false;
-        goal = false;
         
     }
     
     public void update(float delta) {
-        world.step(1f / 60.0f, 8, 3);
-
-        player.update(delta);
-
-        for (int i = actors.size - 1; i >=0; i--) {
-            actors.get(i).update(delta);
-            if (actors.get(i).toBeRemoved) {
-                actors.get(i).dispose();
-                actors.removeIndex(i);
-            }
-        }
-
-        for (int i = particleEffects.size - 1; i >= 0; i--) {
-            if (particleEffects.get(i).isComplete()) {
-                particleEffects.removeIndex(i);
-            }
-        }
-        
-        playerSpeedLabel.setText(String.format("Speed: %.2f", player.getSpeed()));
-        playerPositionLabel.setText(String.format("Pos: %.2f, %.2f", player.getPosition().x, player.getPosition().y));
-        playerHpLabel.setText(String.format("HP: %.1f", player.getHp()));
+        simulation.update(delta);
         
-        if (player.goal(goalY)) {
-            goal = true;
+        if (showPlayerInfo && playerInfoText.update(player)) {
+            playerSpeedLabel.setText(playerInfoText.getSpeedText());
+            playerPositionLabel.setText(playerInfoText.getPositionText());
+            playerHpLabel.setText(playerInfoText.getHpText());
         }
         
+        boolean goal = simulation.isGoal();
         if (!player.isPlayerAlive() && !goal) {
             gameOverCountDown -= delta;
             if (gameOverCountDown <= 0) {
@@ -234,10 +272,15 @@ public class PlayScreen implements Screen{
             target_y = player.getPosition().y + HEIGHT / 4f;
         }
 
-        camera.position.y = MathUtils.lerp(camera.position.y, target_y, 0.1f);
-        camera.zoom = MathUtils.lerp(camera.zoom, target_zoom, 0.1f);
-        
-        background.update(player.getPosition());
+        // move 10% of the way every 1/60 second, whatever the frame rate
+        float follow = 1f - (float) Math.pow(0.9f, delta / GameSimulation.TIME_STEP);
+        camera.position.y = MathUtils.lerp(camera.position.y, target_y, follow);
+        camera.zoom = MathUtils.lerp(camera.zoom, target_zoom, follow);
+        
+        FrameProfiler.begin(Phase.BACKGROUND);
+        float backgroundHalfHeight = camera.viewportHeight * camera.zoom / 2f;
+        background.update(player.getPosition(), camera.position.y - backgroundHalfHeight, camera.position.y + backgroundHalfHeight);
+        FrameProfiler.end(Phase.BACKGROUND);
 
         statusHud.setPlayerHp(player.getHpRatio());
         statusHud.setPlayerSpeed(player.getSpeedRatio());
@@ -246,6 +289,11 @@ public class PlayScreen implements Screen{
     
     public void inputHandle(float delta) {
         
+        // the left key fires the right throttle and the other way around
+        simulation.getInput().set(Gdx.input.isKeyPressed(Input.Keys.RIGHT), Gdx.input.isKeyPressed(Input.Keys.LEFT));
+        
+        boolean goal = simulation.isGoal();
+        
         if (Gdx.input.isKeyJustPressed(Input.Keys.ESCAPE)) {
             if (player.isPlayerAlive() && !goal) {
                 player_paused = !player_paused;
@@ -268,6 +316,10 @@ public class PlayScreen implements Screen{
             }
         }
         
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F5)) {
+            saveRecording();
+        }
+        
         if (Gdx.input.isKeyJustPressed(Input.Keys.B)) {
             showBox2DDebugRenderer = !showBox2DDebugRenderer;
         }
@@ -283,7 +335,9 @@ public class PlayScreen implements Screen{
 
     @Override
     public void render(float delta) {
+        FrameProfiler.begin(Phase.INPUT);
         inputHandle(delta);
+        FrameProfiler.end(Phase.INPUT);
         
         if (!(paused || player_paused)) {
             update(delta);
@@ -293,68 +347,95 @@ public class PlayScreen implements Screen{
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
         
         camera.update();
-        batch.setProjectionMatrix(camera.combined);
-        batch.begin();
-        background.render();
-        player.render(batch);
-        for (Actor actor : actors) {
-            actor.render(batch);
+        RenderQueue queue = RenderContext.getQueue();
+        float halfViewHeight = camera.viewportHeight * camera.zoom / 2f;
+        viewBottom = camera.position.y - halfViewHeight;
+        viewTop = camera.position.y + halfViewHeight;
+        renderDelta = delta;
+        renderAlpha = simulation.getAlpha();
+        
+        FrameProfiler.begin(Phase.BACKGROUND);
+        background.render(queue, viewBottom, viewTop);
+        FrameProfiler.end(Phase.BACKGROUND);
+        
+        FrameProfiler.begin(Phase.BATCH);
+        simulation.getPhysicsSyncSystem().interpolate(renderAlpha);
+        // the flames go before the ship
+        player.render(queue);
+        simulation.getRenderSystem().render(queue);
+        
+        // only submit the asteroids inside the camera view
+        if (asteroidRenderer != null) {
+            queue.submit(RenderQueue.ACTORS, ActorBuilder.getAsteroidRegions()[0][1].getTexture(), asteroidCommand);
         }
-        
-        for (ParticleEffect effect : particleEffects) {
-            effect.draw(batch, delta);
+        else {
+            simulation.getAsteroids().render(queue, renderAlpha, viewBottom, viewTop);
         }
-
-        ground.render(batch);
-        keysSprite.draw(batch);
-        batch.end();
+        queue.submit(RenderQueue.EFFECTS, null, particleCommand);
+        queue.submit(RenderQueue.OVERLAY, keysSprite);
+        
+        RenderContext.beginWorld(camera);
+        queue.flush(batch);
+        FrameProfiler.end(Phase.BATCH);
+        
+        // the status hud is drawn in the same pass
+        FrameProfiler.begin(Phase.STATUS_HUD);
+        RenderContext.switchToScreen();
+        statusHud.render(queue);
+        queue.flush(batch);
+        RenderContext.end();
+        FrameProfiler.end(Phase.STATUS_HUD);
         
-        statusHud.render();
-        stage.draw();
+        FrameProfiler.begin(Phase.STAGE);
+        RenderContext.drawStage(stage);
+        FrameProfiler.end(Phase.STAGE);
         
         if (showBox2DDebugRenderer) {
-            box2DDebugRenderer.render(world, camera.combined);
+            box2DDebugRenderer.render(simulation.getWorld(), camera.combined);
         }
     }
 
-    public void gameInit() {
-        for (Actor actor : actors) {
-            actor.dispose();
+    /**
+     * Writes the input of the flight so far, to be replayed by HeadlessLauncher
+     */
+    private void saveRecording() {
+        InputRecording recording = simulation.getRecording();
+        FileHandle file = Gdx.files.local("replays/flight_" + recording.getSeed() + "_" + recording.getSteps() + ".rec");
+        try {
+            recording.write(file);
+            Gdx.app.log("PlayScreen", "recorded " + recording.getSteps() + " steps to " + file.path());
+        }
+        catch (GdxRuntimeException e) {
+            Gdx.app.error("PlayScreen", "cannot write " + file.path(), e);
         }
-        actors.clear();
-        particleEffects.clear();
     }
 
     public void gameRestart() {
-        gameInit();
-        player.restart();
-
-        setupLevel();
+        // the simulation removes the explosions of the last flight
+        simulation.restart();
+        // a replay or a fresh World comes with a new player
+        player = simulation.getPlayer();
         
         gameOverCountDown = 1.0f;
-        goal = false;
     }
     
-    public void setupLevel() {
-        int[] asteroidNums = new int[] {
-                24, 24, 20, 20, 20, 20, 20, 20, 20, 20, 16, 12
-        };
-        
-        for (int i = 0; i < asteroidNums.length; i++) {
-            int num = asteroidNums[i];
-            float y = 36f + goalY / asteroidNums.length * i;
-            for (int j = 0; j < num; j ++) {
-                int size = MathUtils.random(1, 6);
-                y += size / 2f + MathUtils.random(0.5f, 2f);
-                float x = 0.5f + MathUtils.random(18.5f);
-                Asteroid asteroid = ActorBuilder.createAsteroid(this, x, y, i % 2 == 0 ? "r" : "b", size);
-                actors.add(asteroid);
-            }
-        }
+    @Override
+    public void throttleChanged(Player player, boolean leftThrottle, boolean rightThrottle) {
+        leftThrottleLoop.setPlaying(leftThrottle);
+        rightThrottleLoop.setPlaying(rightThrottle);
     }
-    
-    public Array<ParticleEffect> getParticleEffectArray() {
-        return particleEffects;
+
+    @Override
+    public void playerExploded(Player player, float x, float y) {
+        ActorBuilder.createExplodeEffect(simulation.getEngine(), x, y);
+        SoundMixer.play(playerExplosionSound, 1f, 1f, (x - 10f) / 20f, 10);
+    }
+
+    @Override
+    public void asteroidExploded(float x, float y, float size) {
+        ActorBuilder.createAsteroidExplodeEffect(simulation.getEngine(), x, y, MathUtils.ceil(size));
+        // bigger asteroids win the voices
+        SoundMixer.play(asteroidExplosionSound, 1f, 1.1f - size / 10f, (x - 10f) / 20f, MathUtils.ceil(size));
     }
     
     public float getCameraZoom() {
@@ -383,12 +464,19 @@ public class PlayScreen implements Screen{
 
     @Override
     public void dispose() {
-        world.dispose();
+        leftThrottleLoop.stop();
+        rightThrottleLoop.stop();
+        SoundMixer.release(playerExplosionSound);
+        SoundMixer.release(asteroidExplosionSound);
+        simulation.dispose();
+        background.dispose();
+        // the particle effects are released with the manifest
+        ActorBuilder.releaseEffectPools();
         box2DDebugRenderer.dispose();
-        batch.dispose();
+        if (asteroidRenderer != null) {
+            asteroidRenderer.dispose();
+        }
         stage.dispose();
         statusHud.dispose();
-        monoFont24.dispose();
-        monoFont64.dispose();
     }
 }
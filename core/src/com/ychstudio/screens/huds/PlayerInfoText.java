@@ -0,0 +1,89 @@
+package com.ychstudio.screens.huds;
+
+import com.badlogic.gdx.utils.StringBuilder;
+import com.ychstudio.actors.Player;
+
+/**
+ * The speed, position and HP lines of the player info labels.
+ * The text is only rebuilt when a displayed value changes, and is written without allocating.
+ */
+public class PlayerInfoText {
+
+    private final StringBuilder speedText = new StringBuilder(16);
+    private final StringBuilder positionText = new StringBuilder(24);
+    private final StringBuilder hpText = new StringBuilder(16);
+
+    // the displayed values, scaled to integers by their number of decimals
+    private int speed = Integer.MIN_VALUE;
+    private int positionX = Integer.MIN_VALUE;
+    private int positionY = Integer.MIN_VALUE;
+    private int hp = Integer.MIN_VALUE;
+
+    /**
+     * @return true if any of the lines changed
+     */
+    public boolean update(Player player) {
+        boolean changed = false;
+
+        int newSpeed = Math.round(player.getSpeed() * 100f);
+        if (newSpeed != speed) {
+            speed = newSpeed;
+            speedText.setLength(0);
+            appendFixed(speedText.append("Speed: "), speed, 2);
+            changed = true;
+        }
+
+        int newPositionX = Math.round(player.getPosition().x * 100f);
+        int newPositionY = Math.round(player.getPosition().y * 100f);
+        if (newPositionX != positionX || newPositionY != positionY) {
+            positionX = newPositionX;
+            positionY = newPositionY;
+            positionText.setLength(0);
+            appendFixed(positionText.append("Pos: "), positionX, 2);
+            appendFixed(positionText.append(", "), positionY, 2);
+            changed = true;
+        }
+
+        int newHp = Math.round(player.getHp() * 10f);
+        if (newHp != hp) {
+            hp = newHp;
+            hpText.setLength(0);
+            appendFixed(hpText.append("HP: "), hp, 1);
+            changed = true;
+        }
+
+        return changed;
+    }
+
+    /**
+     * Appends value / 10^decimals with exactly that many decimals.
+     */
+    public static StringBuilder appendFixed(StringBuilder text, int value, int decimals) {
+        if (value < 0) {
+            text.append('-');
+            value = -value;
+        }
+        int scale = 1;
+        for (int i = 0; i < decimals; i++) {
+            scale *= 10;
+        }
+        text.append(value / scale);
+        if (decimals > 0) {
+            text.append('.');
+            text.append(value % scale, decimals, '0');
+        }
+        return text;
+    }
+
+    public StringBuilder getSpeedText() {
+        return speedText;
+    }
+
+    public StringBuilder getPositionText() {
+        return positionText;
+    }
+
+    public StringBuilder getHpText() {
+        return hpText;
+    }
+}
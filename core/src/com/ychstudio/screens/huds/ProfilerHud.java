@@ -0,0 +1,187 @@
+package com.ychstudio.screens.huds;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.ychstudio.gamesys.ActorBuilder;
+import com.ychstudio.gamesys.EffectPool;
+import com.ychstudio.gamesys.FrameProfiler;
+import com.ychstudio.gamesys.FrameProfiler.Phase;
+import com.ychstudio.gamesys.RenderContext;
+import com.ychstudio.gamesys.SoundMixer;
+
+/**
+ * Shows the FrameProfiler history: p50/p99/max and a bar graph of the recent frames for every phase,
+ * plus batch flushes, texture bindings, sounds, garbage collections and the use of the particle effect pools.
+ * A pool with misses had to copy its effect during play, its peak in use is the size it needs.
+ */
+public class ProfilerHud implements Disposable {
+
+    private static final float BUDGET_MS = 1000f / 60f;
+    private static final int GRAPH_FRAMES = 120;
+    private static final float GRAPH_HEIGHT = 12f;
+    private static final float LINE_HEIGHT = 16f;
+    private static final float REFRESH_INTERVAL = 0.5f; // seconds between text updates
+
+    private BitmapFont font;
+    private Texture pixelTexture;
+
+    private final StringBuilder[] phaseLines;
+    private final StringBuilder summaryLine = new StringBuilder();
+    private float refreshTime;
+
+    private int textureBindings;
+    private int drawCalls;
+
+    private final Color graphColor = new Color(0.4f, 0.9f, 0.4f, 0.8f);
+    private final Color overBudgetColor = new Color(0.9f, 0.3f, 0.3f, 0.8f);
+
+    public ProfilerHud(BitmapFont font) {
+        this.font = font;
+
+        Pixmap pixmap = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
+        pixmap.setColor(Color.WHITE);
+        pixmap.fill();
+        pixelTexture = new Texture(pixmap);
+        pixmap.dispose();
+
+        phaseLines = new StringBuilder[Phase.values().length];
+        for (int i = 0; i < phaseLines.length; i++) {
+            phaseLines[i] = new StringBuilder();
+        }
+    }
+
+    public void setVisible(boolean visible) {
+        FrameProfiler.setEnabled(visible);
+        if (visible) {
+            GLProfiler.enable();
+            GLProfiler.reset();
+            refreshTime = 0;
+        }
+        else {
+            GLProfiler.disable();
+        }
+    }
+
+    public boolean isVisible() {
+        return FrameProfiler.isEnabled();
+    }
+
+    /**
+     * Reads the GL counters of the frame that just finished, must be called once per frame.
+     */
+    public void update(float delta) {
+        if (!isVisible()) {
+            return;
+        }
+        textureBindings = GLProfiler.textureBindings;
+        drawCalls = GLProfiler.drawCalls;
+        GLProfiler.reset();
+
+        refreshTime -= delta;
+        if (refreshTime <= 0) {
+            refreshTime = REFRESH_INTERVAL;
+            refreshText();
+        }
+    }
+
+    private void refreshText() {
+        Phase[] phases = Phase.values();
+        for (int i = 0; i < phases.length; i++) {
+            Phase phase = phases[i];
+            StringBuilder line = phaseLines[i];
+            line.setLength(0);
+            line.append(phase.label).append(": ");
+            appendMillis(line, FrameProfiler.getPercentile(phase, 0.5f)).append(" / ");
+            appendMillis(line, FrameProfiler.getPercentile(phase, 0.99f)).append(" / ");
+            appendMillis(line, FrameProfiler.getMax(phase));
+        }
+
+        summaryLine.setLength(0);
+        summaryLine.append("FPS: ").append(Gdx.graphics.getFramesPerSecond());
+        summaryLine.append("  frame p99: ");
+        appendMillis(summaryLine, FrameProfiler.getFramePercentile(0.99f));
+        summaryLine.append("\nflushes: ").append(RenderContext.getFrameFlushes());
+        summaryLine.append("  draw calls: ").append(drawCalls);
+        summaryLine.append("  textures: ").append(textureBindings);
+        summaryLine.append("\nqueue switches: ").append(RenderContext.getQueue().getFrameSwitches());
+        summaryLine.append(" (unsorted ").append(RenderContext.getQueue().getFrameSubmittedSwitches()).append(")");
+        summaryLine.append("\nsounds: ").append(SoundMixer.getPlayed());
+        summaryLine.append("  merged: ").append(SoundMixer.getMerged());
+        summaryLine.append("  dropped: ").append(SoundMixer.getDropped());
+        summaryLine.append("  stolen: ").append(SoundMixer.getStolen());
+        summaryLine.append("\ngc: ").append(FrameProfiler.getFrameGcCount());
+        summaryLine.append(" (total ").append(FrameProfiler.getGcCount()).append(")");
+
+        Array<EffectPool> effectPools = ActorBuilder.getEffectPools();
+        if (effectPools != null) {
+            for (int i = 0; i < effectPools.size; i++) {
+                EffectPool pool = effectPools.get(i);
+                summaryLine.append('\n').append(pool.getName());
+                summaryLine.append(": in use ").append(pool.getInUse());
+                summaryLine.append("  peak ").append(pool.getPeakInUse());
+                summaryLine.append("  free ").append(pool.getFree());
+                summaryLine.append("  hits ").append(pool.getHits());
+                summaryLine.append("  misses ").append(pool.getMisses());
+            }
+        }
+    }
+
+    private static StringBuilder appendMillis(StringBuilder line, long nanos) {
+        long hundredths = nanos / 10000;
+        line.append(hundredths / 100).append('.');
+        long fraction = hundredths % 100;
+        if (fraction < 10) {
+            line.append('0');
+        }
+        return line.append(fraction);
+    }
+
+    public void render() {
+        if (!isVisible()) {
+            return;
+        }
+        float height = Gdx.graphics.getHeight();
+        float y = height - 140f;
+
+        SpriteBatch batch = RenderContext.beginScreen();
+        font.draw(batch, "phase: p50 / p99 / max ms", 6f, y);
+        y -= LINE_HEIGHT;
+
+        Phase[] phases = Phase.values();
+        for (int i = 0; i < phases.length; i++) {
+            drawGraph(batch, phases[i], 6f, y - LINE_HEIGHT + 2f);
+            font.draw(batch, phaseLines[i], 6f + GRAPH_FRAMES + 6f, y);
+            y -= LINE_HEIGHT;
+        }
+
+        font.draw(batch, summaryLine, 6f, y);
+        RenderContext.end();
+        batch.setColor(Color.WHITE);
+    }
+
+    private void drawGraph(SpriteBatch batch, Phase phase, float x, float y) {
+        int samples = Math.min(GRAPH_FRAMES, FrameProfiler.getSampleCount());
+        for (int i = 0; i < samples; i++) {
+            float ms = FrameProfiler.getSample(phase, i) / 1000000f;
+            if (ms <= 0) {
+                continue;
+            }
+            batch.setColor(ms > BUDGET_MS ? overBudgetColor : graphColor);
+            float barHeight = Math.min(1f, ms / BUDGET_MS) * GRAPH_HEIGHT;
+            batch.draw(pixelTexture, x + GRAPH_FRAMES - 1 - i, y, 1f, Math.max(1f, barHeight));
+        }
+        batch.setColor(Color.WHITE);
+    }
+
+    @Override
+    public void dispose() {
+        pixelTexture.dispose();
+    }
+}
@@ -5,19 +5,17 @@ import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.Disposable;
 import com.ychstudio.gamesys.GM;
+import com.ychstudio.gamesys.RenderQueue;
 
 public class StatusHud implements Disposable {
 
     private float width;
     private float height;
     
-    private SpriteBatch batch;
-    
     private Sprite hpIconSprite;
     private Sprite speedIconSprite;
     private Sprite targetIconSprite;
@@ -32,7 +30,6 @@ public class StatusHud implements Disposable {
     private float progress; // a ratio value between 0 and 1
     
     public StatusHud() {
-        batch = new SpriteBatch();
         width = Gdx.graphics.getWidth();
         height = Gdx.graphics.getHeight();
         TextureAtlas textureAtlas = GM.getAssetManager().get("images/actors.pack", TextureAtlas.class);
@@ -58,25 +55,25 @@ public class StatusHud implements Disposable {
         
     }
     
-    public void render() {
-        batch.begin();
-        hpIconSprite.draw(batch);
-        speedIconSprite.draw(batch);
-        targetIconSprite.draw(batch);
+    /**
+     * Queues the hud for a pass in screen coordinates, the frames go on top of the bars.
+     */
+    public void render(RenderQueue queue) {
+        queue.submit(RenderQueue.HUD, hpIconSprite);
+        queue.submit(RenderQueue.HUD, speedIconSprite);
+        queue.submit(RenderQueue.HUD, targetIconSprite);
         
         // draw HP bar
-        batch.draw(barTexture, 30f, height - 36f, barWidth * playerHp, barHeight);
-        batch.draw(barFrameTexture, 30f, height - 36f, barWidth, barHeight);
+        queue.submit(RenderQueue.HUD, barTexture, 30f, height - 36f, barWidth * playerHp, barHeight);
+        queue.submit(RenderQueue.HUD_FRAMES, barFrameTexture, 30f, height - 36f, barWidth, barHeight);
         
         // draw speed bar
-        batch.draw(barTexture, 30f, height - 60f, barWidth * playerSpeed, barHeight);
-        batch.draw(barFrameTexture, 30f, height - 60f, barWidth, barHeight);
+        queue.submit(RenderQueue.HUD, barTexture, 30f, height - 60f, barWidth * playerSpeed, barHeight);
+        queue.submit(RenderQueue.HUD_FRAMES, barFrameTexture, 30f, height - 60f, barWidth, barHeight);
         
         // draw progress bar
-        batch.draw(barTexture, width - 30f - barWidth * progress, height - 36f, barWidth * progress, barHeight);
-        batch.draw(barFrameTexture, width - 30f - barWidth, height - 36f, barWidth, barHeight);
-        
-        batch.end();
+        queue.submit(RenderQueue.HUD, barTexture, width - 30f - barWidth * progress, height - 36f, barWidth * progress, barHeight);
+        queue.submit(RenderQueue.HUD_FRAMES, barFrameTexture, width - 30f - barWidth, height - 36f, barWidth, barHeight);
     }
     
     public void setPlayerHp(float hp) {
@@ -100,6 +97,5 @@ public class StatusHud implements Disposable {
     public void dispose() {
         barTexture.dispose();
         barFrameTexture.dispose();
-        batch.dispose();
     }
 }
@@ -7,6 +7,12 @@ public interface ScreenTransition {
     
     public float getDuration();
     
+    /**
+     * @return true to render the outgoing screen once at the start and slide that picture,
+     * false to keep rendering it every frame of the transition
+     */
+    public boolean freezesCurrentScreen();
+    
     public void rander(SpriteBatch batch, Texture currentScreen, Texture nextScreen, float alpha);
 
 }
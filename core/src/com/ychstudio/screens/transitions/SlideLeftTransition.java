@@ -8,15 +8,26 @@ import com.badlogic.gdx.math.Interpolation;
 public class SlideLeftTransition implements ScreenTransition {
     
     private float duration;
+    private boolean freezeCurrentScreen;
     
     public SlideLeftTransition(float duration) {
+        this(duration, true);
+    }
+    
+    public SlideLeftTransition(float duration, boolean freezeCurrentScreen) {
         this.duration = duration;
+        this.freezeCurrentScreen = freezeCurrentScreen;
     }
 
     @Override
     public float getDuration() {
         return duration;
     }
+    
+    @Override
+    public boolean freezesCurrentScreen() {
+        return freezeCurrentScreen;
+    }
 
     @Override
     public void rander(SpriteBatch batch, Texture currentScreenTexture, Texture nextScreenTexture, float alpha) {
@@ -3,6 +3,7 @@ package com.ychstudio.desktop;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
 import com.ychstudio.SpaceMission;
+import com.ychstudio.gamesys.AsteroidRenderer;
 
 public class DesktopLauncher {
 	public static void main (String[] arg) {
@@ -12,6 +13,7 @@ public class DesktopLauncher {
 		config.setTitle("SpaceMission");
 //		config.width = 400;
 //		config.height = 600;
+		AsteroidRenderer.setInstancing(new Lwjgl3Instancing());
 		new Lwjgl3Application(new SpaceMission(), config);
 	}
 }
@@ -0,0 +1,29 @@
+package com.ychstudio.desktop;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.opengl.GL33;
+
+import com.ychstudio.gamesys.AsteroidRenderer;
+
+/**
+ * Instanced drawing through LWJGL, which the compatibility context has on any OpenGL 3.3 driver
+ * even though libGDX only offers it through GL30 on a core context.
+ */
+public class Lwjgl3Instancing implements AsteroidRenderer.Instancing {
+
+    @Override
+    public boolean isSupported() {
+        return GL.getCapabilities().OpenGL33;
+    }
+
+    @Override
+    public void vertexAttribDivisor(int index, int divisor) {
+        GL33.glVertexAttribDivisor(index, divisor);
+    }
+
+    @Override
+    public void drawArraysInstanced(int mode, int first, int count, int instanceCount) {
+        GL31.glDrawArraysInstanced(mode, first, count, instanceCount);
+    }
+}
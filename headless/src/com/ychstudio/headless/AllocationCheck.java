@@ -0,0 +1,220 @@
+package com.ychstudio.headless;
+
+import java.lang.management.ManagementFactory;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.assets.loaders.SynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEmitter;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.ychstudio.actors.Player;
+import com.ychstudio.ecs.EffectComponent;
+import com.ychstudio.ecs.Mappers;
+import com.ychstudio.gamesys.ActorBuilder;
+import com.ychstudio.gamesys.GameEventListener;
+import com.ychstudio.gamesys.GameSimulation;
+import com.ychstudio.gamesys.LevelGenerator;
+import com.ychstudio.gamesys.SoundMixer;
+import com.ychstudio.screens.PlayScreen;
+import com.ychstudio.screens.huds.PlayerInfoText;
+
+/**
+ * Fails when a steady-state frame allocates.
+ * It runs the loop the game ships: the simulation records its input, a flight restarts once the player is dead
+ * or has reached the goal, and the events create explosion entities from the effect pools, play sounds through
+ * the SoundMixer and switch the throttle loops like PlayScreen does. Only the drawing is left out.
+ * After warm-up flights on every seed, it runs FRAMES frames on one thread and compares the bytes the thread allocated
+ * before and after. Exits with status 1 if anything was allocated.
+ * A restart builds a new World with new bodies, as PlayScreen records every flight, so what the restarts allocate
+ * is measured on its own and only reported. A new seed would also allocate its LevelLayout, so the flights take turns
+ * on as many seeds as LevelGenerator keeps.
+ * The headless backend has no GL, so the particle effects are loaded without their textures.
+ * Needs a HotSpot JVM, which reports per-thread allocation.
+ */
+public class AllocationCheck extends ApplicationAdapter {
+
+    private static final int FRAMES = 10000;
+    private static final int WARM_UP_FLIGHTS = 12 * LevelGenerator.CACHE_SIZE; // until the pools and effects have peaked
+    private static final int EFFECT_POOL_SIZE = 16; // as in PlayScreen
+
+    /**
+     * What PlayScreen does on the events, apart from drawing.
+     */
+    private static class Events implements GameEventListener {
+        GameSimulation simulation;
+        Sound playerExplosionSound;
+        Sound asteroidExplosionSound;
+        SoundMixer.Loop leftThrottleLoop;
+        SoundMixer.Loop rightThrottleLoop;
+
+        @Override
+        public void throttleChanged(Player player, boolean leftThrottle, boolean rightThrottle) {
+            leftThrottleLoop.setPlaying(leftThrottle);
+            rightThrottleLoop.setPlaying(rightThrottle);
+        }
+
+        @Override
+        public void playerExploded(Player player, float x, float y) {
+            ActorBuilder.createExplodeEffect(simulation.getEngine(), x, y);
+            SoundMixer.play(playerExplosionSound, 1f, 1f, (x - 10f) / 20f, 10);
+        }
+
+        @Override
+        public void asteroidExploded(float x, float y, float size) {
+            ActorBuilder.createAsteroidExplodeEffect(simulation.getEngine(), x, y, MathUtils.ceil(size));
+            SoundMixer.play(asteroidExplosionSound, 1f, 1.1f - size / 10f, (x - 10f) / 20f, MathUtils.ceil(size));
+        }
+    }
+
+    /**
+     * Loads the emitters of a particle effect and gives them a sprite without a texture, enough to update the effect.
+     */
+    private static class EmitterLoader extends SynchronousAssetLoader<ParticleEffect, AssetLoaderParameters<ParticleEffect>> {
+
+        EmitterLoader(FileHandleResolver resolver) {
+            super(resolver);
+        }
+
+        @Override
+        public ParticleEffect load(AssetManager assetManager, String fileName, FileHandle file,
+                AssetLoaderParameters<ParticleEffect> parameter) {
+            ParticleEffect effect = new ParticleEffect();
+            effect.loadEmitters(file);
+            for (ParticleEmitter emitter : effect.getEmitters()) {
+                emitter.setSprite(new Sprite());
+            }
+            return effect;
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file,
+                AssetLoaderParameters<ParticleEffect> parameter) {
+            return null;
+        }
+    }
+
+    private com.sun.management.ThreadMXBean threadBean;
+    private long threadId;
+    private int exitStatus;
+    private int flights;
+    private long restartBytes;
+    private ImmutableArray<Entity> effects;
+
+    @Override
+    public void create() {
+        threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threadId = Thread.currentThread().getId();
+
+        AssetManager assetManager = new AssetManager();
+        assetManager.setLoader(ParticleEffect.class, new EmitterLoader(new InternalFileHandleResolver()));
+        for (AssetDescriptor<?> asset : PlayScreen.MANIFEST.getAssets()) {
+            if (asset.type == ParticleEffect.class || asset.type == Sound.class) {
+                assetManager.load(asset);
+            }
+        }
+        assetManager.finishLoading();
+
+        ActorBuilder.setAssetManager(assetManager);
+        ActorBuilder.prepareEffectPools(EFFECT_POOL_SIZE);
+        // the actors are built without sprites, the atlas is not loaded
+        ActorBuilder.setAssetManager(null);
+
+        Events events = new Events();
+        events.playerExplosionSound = assetManager.get("audio/Explosion1.ogg", Sound.class);
+        events.asteroidExplosionSound = assetManager.get("audio/Explosion2.ogg", Sound.class);
+        Sound throttleSound = assetManager.get("audio/Throttle.mp3", Sound.class);
+        events.leftThrottleLoop = new SoundMixer.Loop(throttleSound, 1f, 1f, -0.5f);
+        events.rightThrottleLoop = new SoundMixer.Loop(throttleSound, 1f, 1f, 0.5f);
+        SoundMixer.setVoices(events.asteroidExplosionSound, 6, 1.25f);
+        SoundMixer.setVoices(events.playerExplosionSound, 1, 2f);
+
+        GameSimulation simulation = new GameSimulation(events);
+        events.simulation = simulation;
+        // set up like PlayScreen
+        simulation.setView(30f / 4f, 30f / 2f);
+        simulation.setFreshWorld(true);
+        simulation.setRecordInput(true);
+        effects = simulation.getEngine().getEntitiesFor(Family.all(EffectComponent.class).get());
+        PlayerInfoText playerInfoText = new PlayerInfoText();
+
+        restart(simulation);
+        while (flights < WARM_UP_FLIGHTS) {
+            runFrames(simulation, playerInfoText, 1);
+        }
+
+        flights = 0;
+        restartBytes = 0;
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        runFrames(simulation, playerInfoText, FRAMES);
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before - restartBytes;
+
+        if (allocated > 0) {
+            Gdx.app.error("AllocationCheck", allocated + " bytes allocated in " + FRAMES + " frames");
+            exitStatus = 1;
+        }
+        else {
+            Gdx.app.log("AllocationCheck", "no allocation in " + FRAMES + " frames, " + SoundMixer.getPlayed()
+                    + " sounds played; " + flights + " restarts allocated " + restartBytes + " bytes");
+        }
+
+        events.leftThrottleLoop.stop();
+        events.rightThrottleLoop.stop();
+        simulation.dispose();
+        ActorBuilder.releaseEffectPools();
+        assetManager.dispose();
+        Gdx.app.exit();
+    }
+
+    private void restart(GameSimulation simulation) {
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        simulation.restart(flights % LevelGenerator.CACHE_SIZE);
+        flights++;
+        restartBytes += threadBean.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    private void runFrames(GameSimulation simulation, PlayerInfoText playerInfoText, int frames) {
+        for (int i = 0; i < frames; i++) {
+            if (simulation.isFinished()) {
+                restart(simulation);
+            }
+            HeadlessLauncher.autopilot(simulation.getPlayer(), simulation.getInput());
+            simulation.update(GameSimulation.TIME_STEP);
+            playerInfoText.update(simulation.getPlayer());
+
+            // RenderSystem.renderEffects without the drawing
+            for (int j = 0; j < effects.size(); j++) {
+                Mappers.effect.get(effects.get(j)).effect.update(GameSimulation.TIME_STEP);
+            }
+            SoundMixer.update(GameSimulation.TIME_STEP);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if (exitStatus != 0) {
+            System.exit(exitStatus);
+        }
+    }
+
+    public static void main(String[] args) {
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = -1;
+        new HeadlessApplication(new AllocationCheck(), config);
+    }
+}
@@ -0,0 +1,235 @@
+package com.ychstudio.headless;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.files.FileHandle;
+import com.ychstudio.actors.Player;
+import com.ychstudio.gamesys.CollisionDiagnostics;
+import com.ychstudio.gamesys.GM;
+import com.ychstudio.gamesys.GameSimulation;
+import com.ychstudio.gamesys.InputRecording;
+import com.ychstudio.gamesys.PlayerInput;
+
+/**
+ * Flies the game without graphics or audio, as fast as the simulation allows.
+ * Usage: HeadlessLauncher [flights]
+ *        HeadlessLauncher collisions [flights]  flies with CollisionDiagnostics and logs the counts per layer pair
+ *        HeadlessLauncher analytic [flights]    flies with analytic asteroids instead of asteroid bodies
+ *        HeadlessLauncher record file     flies one autopilot flight and writes its input to file
+ *        HeadlessLauncher replay file     replays a recorded flight, e.g. one saved with F5 in the game
+ *        HeadlessLauncher replaycheck [flights]  records flights set up like PlayScreen, restarting between them,
+ *                                                replays each one in a new simulation and compares the end states
+ * Record and replay log the end state of the flight. A recording made in a new World for every flight, as PlayScreen and
+ * record do, replays to the same end state; replaycheck exits with status 1 if one does not.
+ */
+public class HeadlessLauncher extends ApplicationAdapter {
+    
+    private static final int MAX_STEPS_PER_FLIGHT = 60 * 180;
+    // the view of PlayScreen: a quarter of its height above the player, half its height around that
+    private static final float PLAY_VIEW_OFFSET_Y = 30f / 4f;
+    private static final float PLAY_VIEW_HALF_HEIGHT = 30f / 2f;
+    
+    private int flights;
+    private String mode;
+    private String fileName;
+    private int exitStatus;
+    
+    public HeadlessLauncher(int flights) {
+        this.flights = flights;
+    }
+    
+    public HeadlessLauncher(String mode, int flights) {
+        this.mode = mode;
+        this.flights = flights;
+    }
+    
+    public HeadlessLauncher(String mode, String fileName) {
+        this.mode = mode;
+        this.fileName = fileName;
+    }
+    
+    @Override
+    public void create() {
+        GameSimulation simulation = new GameSimulation(null);
+        
+        if ("record".equals(mode)) {
+            record(simulation, Gdx.files.absolute(fileName));
+        }
+        else if ("replay".equals(mode)) {
+            replay(simulation, Gdx.files.absolute(fileName));
+        }
+        else if ("collisions".equals(mode)) {
+            CollisionDiagnostics diagnostics = new CollisionDiagnostics(GM.COLLISION_LAYERS);
+            simulation.setCollisionDiagnostics(diagnostics);
+            fly(simulation);
+            diagnostics.log();
+        }
+        else if ("replaycheck".equals(mode)) {
+            replayCheck(simulation);
+        }
+        else if ("analytic".equals(mode)) {
+            simulation.setAnalyticAsteroids(true);
+            fly(simulation);
+        }
+        else {
+            fly(simulation);
+        }
+        
+        simulation.dispose();
+        Gdx.app.exit();
+    }
+    
+    private void fly(GameSimulation simulation) {
+        int goals = 0;
+        long steps = 0;
+        long start = System.nanoTime();
+        
+        for (int i = 0; i < flights; i++) {
+            simulation.restart();
+            while (!simulation.isFinished() && simulation.getStepCount() < MAX_STEPS_PER_FLIGHT) {
+                autopilot(simulation.getPlayer(), simulation.getInput());
+                simulation.step();
+            }
+            steps += simulation.getStepCount();
+            if (simulation.isGoal()) {
+                goals++;
+            }
+        }
+        
+        float seconds = (System.nanoTime() - start) / 1e9f;
+        Gdx.app.log("HeadlessLauncher", String.format("%d flights, %d goals, %d steps in %.2f s (%.1f flights/s, %.0f steps/s)",
+                flights, goals, steps, seconds, flights / seconds, steps / seconds));
+    }
+    
+    private void record(GameSimulation simulation, FileHandle file) {
+        // a new World like the replay's, so the replay ends in exactly the same state
+        simulation.setFreshWorld(true);
+        simulation.setRecordInput(true);
+        simulation.restart();
+        while (!simulation.isFinished() && simulation.getStepCount() < MAX_STEPS_PER_FLIGHT) {
+            autopilot(simulation.getPlayer(), simulation.getInput());
+            simulation.step();
+        }
+        InputRecording recording = simulation.getRecording();
+        recording.write(file);
+        Gdx.app.log("HeadlessLauncher", String.format("recorded %d steps in %d runs, %d bytes", recording.getSteps(),
+                recording.getRunCount(), file.length()));
+        logEndState(simulation);
+    }
+    
+    private void replay(GameSimulation simulation, FileHandle file) {
+        InputRecording recording = InputRecording.read(file);
+        long start = System.nanoTime();
+        simulation.replay(recording);
+        while (!simulation.isReplayFinished()) {
+            simulation.step();
+        }
+        float seconds = (System.nanoTime() - start) / 1e9f;
+        Gdx.app.log("HeadlessLauncher", String.format("replayed %d steps in %.3f s", recording.getSteps(), seconds));
+        logEndState(simulation);
+    }
+    
+    /**
+     * Records flights the way PlayScreen does: the first one is the flight the simulation was created with,
+     * every following one starts with a restart. Each recording goes through a file and is replayed in a new simulation.
+     */
+    private void replayCheck(GameSimulation simulation) {
+        simulation.setView(PLAY_VIEW_OFFSET_Y, PLAY_VIEW_HALF_HEIGHT);
+        simulation.setFreshWorld(true);
+        simulation.setRecordInput(true);
+        FileHandle file = FileHandle.tempFile("replaycheck");
+        int mismatches = 0;
+
+        for (int i = 0; i < flights; i++) {
+            if (i > 0) {
+                simulation.restart();
+            }
+            while (!simulation.isFinished() && simulation.getStepCount() < MAX_STEPS_PER_FLIGHT) {
+                autopilot(simulation.getPlayer(), simulation.getInput());
+                simulation.step();
+            }
+            String recorded = endState(simulation);
+            simulation.getRecording().write(file);
+
+            // with the default view, the replay has to take the view from the recording
+            GameSimulation replaying = new GameSimulation(null);
+            replaying.replay(InputRecording.read(file));
+            while (!replaying.isReplayFinished()) {
+                replaying.step();
+            }
+            String replayed = endState(replaying);
+            replaying.dispose();
+
+            if (!recorded.equals(replayed)) {
+                Gdx.app.error("HeadlessLauncher", "flight " + i + " recorded: " + recorded);
+                Gdx.app.error("HeadlessLauncher", "flight " + i + " replayed: " + replayed);
+                mismatches++;
+            }
+        }
+        file.delete();
+
+        if (mismatches > 0) {
+            Gdx.app.error("HeadlessLauncher", mismatches + " of " + flights + " flights replayed to a different end state");
+            exitStatus = 1;
+        }
+        else {
+            Gdx.app.log("HeadlessLauncher", flights + " flights replayed to the recorded end state");
+        }
+    }
+
+    /**
+     * Logs the state a replay has to reproduce, with the exact float values.
+     */
+    private static void logEndState(GameSimulation simulation) {
+        Gdx.app.log("HeadlessLauncher", endState(simulation));
+    }
+
+    private static String endState(GameSimulation simulation) {
+        Player player = simulation.getPlayer();
+        return "seed " + simulation.getSeed() + ", step " + simulation.getStepCount()
+                + ", position " + player.getPosition() + ", angle " + player.getAngle() + ", speed " + player.getSpeed()
+                + ", hp " + player.getHp() + ", asteroids " + simulation.getAsteroids().getSize()
+                + ", goal " + simulation.isGoal() + ", alive " + player.isPlayerAlive();
+    }
+    
+    /**
+     * Keeps the nose up and pushes forward.
+     */
+    static void autopilot(Player player, PlayerInput input) {
+        float angle = player.getAngle();
+        if (angle > 0.05f) {
+            input.set(true, false);
+        }
+        else if (angle < -0.05f) {
+            input.set(false, true);
+        }
+        else {
+            input.set(true, true);
+        }
+    }
+    
+    @Override
+    public void dispose() {
+        if (exitStatus != 0) {
+            System.exit(exitStatus);
+        }
+    }
+    
+    public static void main(String[] args) {
+        HeadlessLauncher launcher;
+        if (args.length > 0 && ("collisions".equals(args[0]) || "analytic".equals(args[0]) || "replaycheck".equals(args[0]))) {
+            launcher = new HeadlessLauncher(args[0], args.length > 1 ? Integer.parseInt(args[1]) : 10);
+        }
+        else if (args.length == 2) {
+            launcher = new HeadlessLauncher(args[0], args[1]);
+        }
+        else {
+            launcher = new HeadlessLauncher(args.length > 0 ? Integer.parseInt(args[0]) : 100);
+        }
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = -1; // create() does all the work
+        new HeadlessApplication(launcher, config);
+    }
+}